@@ -19,8 +19,13 @@ import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.sanfonic.hivemind.config.ModConfig;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
+import net.sanfonic.hivemind.data.HiveTickScheduler;
 import net.sanfonic.hivemind.data.player.PlayerHiveComponent;
+import net.sanfonic.hivemind.entity.DroneAiLod;
+import net.sanfonic.hivemind.entity.DroneBatchTicker;
 import net.sanfonic.hivemind.entity.DroneEntity;
+import net.sanfonic.hivemind.entity.DroneRegistry;
 import net.sanfonic.hivemind.entity.ModEntities;
 import net.sanfonic.hivemind.entity.custom.role.DroneRole;
 
@@ -304,11 +309,7 @@ public class DebugCommands {
             ServerPlayerEntity player = context.getSource().getPlayerOrThrow();
             ServerWorld world = player.getServerWorld();
 
-            List<DroneEntity> drones = world.getEntitiesByClass(
-                    DroneEntity.class,
-                    player.getBoundingBox().expand(radius),
-                    drone -> true
-            );
+            List<DroneEntity> drones = DroneRegistry.getDronesNear(world, player, radius);
 
             int killed = 0;
             for (DroneEntity drone : drones) {
@@ -387,6 +388,19 @@ public class DebugCommands {
                     Text.literal("  Auto-Link: " + config.debugAutoLink).formatted(Formatting.GRAY), false);
             context.getSource().sendFeedback(() ->
                     Text.literal("  Spawn Radius: " + config.debugSpawnRadius).formatted(Formatting.GRAY), false);
+            context.getSource().sendFeedback(() ->
+                    Text.literal("  Player Data Cache: " + PlayerHiveComponent.getCacheStats()).formatted(Formatting.GRAY), false);
+            String samplerStats = HiveLedger.getInstance(context.getSource().getServer()).getTelemetrySampler().getStats();
+            context.getSource().sendFeedback(() ->
+                    Text.literal("  Telemetry Sampler: " + samplerStats).formatted(Formatting.GRAY), false);
+            context.getSource().sendFeedback(() ->
+                    Text.literal("  Drone Registry: " + DroneRegistry.size() + " loaded").formatted(Formatting.GRAY), false);
+            context.getSource().sendFeedback(() ->
+                    Text.literal("  Drone AI: " + DroneAiLod.getStats()).formatted(Formatting.GRAY), false);
+            context.getSource().sendFeedback(() ->
+                    Text.literal("  Drone Batch: " + DroneBatchTicker.getStats()).formatted(Formatting.GRAY), false);
+            context.getSource().sendFeedback(() ->
+                    Text.literal("  Hive Scheduler: " + HiveTickScheduler.getStats()).formatted(Formatting.GRAY), false);
         }
 
         return 1;
@@ -475,11 +489,7 @@ public class DebugCommands {
             ServerPlayerEntity player = context.getSource().getPlayerOrThrow();
             ServerWorld world = player.getServerWorld();
 
-            DroneEntity nearestDrone = world.getEntitiesByClass(
-                            DroneEntity.class,
-                            player.getBoundingBox().expand(100),
-                            drone -> true
-                    ).stream()
+            DroneEntity nearestDrone = DroneRegistry.getDronesNear(world, player, 100).stream()
                     .min((d1, d2) -> Double.compare(player.distanceTo(d1),
                             player.distanceTo(d2)))
                     .orElse(null);
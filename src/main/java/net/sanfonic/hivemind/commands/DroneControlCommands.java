@@ -10,11 +10,16 @@ import net.minecraft.command.argument.EntityArgumentType;
 import net.minecraft.text.Text;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
 import net.sanfonic.hivemind.control.DroneControlManager;
+import net.sanfonic.hivemind.control.DroneRecallManager;
 import net.sanfonic.hivemind.entity.DroneEntity;
+import net.sanfonic.hivemind.entity.DroneRegistry;
 
-public class DroneControlCommands {
+import java.util.ArrayList;
+import java.util.List;
 
+public class DroneControlCommands {
     public static void init() {
         CommandRegistrationCallback.EVENT.register(((dispatcher, RegistryAccess, Environment) -> {
             registerCommands(dispatcher);
@@ -30,6 +35,8 @@ public class DroneControlCommands {
                         .executes(DroneControlCommands::releaseControl))
                 .then(CommandManager.literal("list")
                         .executes(DroneControlCommands::listDrones))
+                .then(CommandManager.literal("recall")
+                        .executes(DroneControlCommands::recallDrones))
                 .then(CommandManager.literal("controlnearest")
                         .executes(DroneControlCommands::controlNearestDrone)
                         .then(CommandManager.argument("range", IntegerArgumentType.integer(1, 100))
@@ -87,11 +94,7 @@ public class DroneControlCommands {
             ServerPlayerEntity player = context.getSource().getPlayerOrThrow();
 
             // Find nearby drones
-            java.util.List<DroneEntity> nearbyDrones = player.getWorld()
-                    .getEntitiesByClass(DroneEntity.class,
-                            player.getBoundingBox().expand(50.0),
-                            drone -> !DroneControlManager.isDroneControlled(drone)
-                                    && DroneControlManager.canPlayerControlDrone(player, drone));
+            java.util.List<DroneEntity> nearbyDrones = findAvailableDrones(player, 50.0);
 
             if (nearbyDrones.isEmpty()) {
                 context.getSource().sendFeedback(() -> Text.literal("No available drones found nearby."), false);
@@ -122,6 +125,21 @@ public class DroneControlCommands {
         }
     }
 
+    private static int recallDrones(CommandContext<ServerCommandSource> context) {
+        try {
+            ServerPlayerEntity player = context.getSource().getPlayerOrThrow();
+            DroneRecallManager.Result result = DroneRecallManager.recallDrones(player);
+
+            context.getSource().sendFeedback(() -> Text.literal(String.format(
+                    "Recalled %d drones, loading %d chunks for the rest (%d in other dimensions or unknown)",
+                    result.moved(), result.chunks(), result.elsewhere())), false);
+            return 1;
+        } catch (Exception e) {
+            context.getSource().sendError(Text.literal("Command failed: " + e.getMessage()));
+            return 0;
+        }
+    }
+
     private static int controlNearestDrone(CommandContext<ServerCommandSource> context) {
         return controlNearestDroneWithRange(context, 20);
     }
@@ -136,11 +154,7 @@ public class DroneControlCommands {
             ServerPlayerEntity player = context.getSource().getPlayerOrThrow();
 
             // Find the nearest available drone
-            DroneEntity nearestDrone = player.getWorld()
-                    .getEntitiesByClass(DroneEntity.class,
-                            player.getBoundingBox().expand(range),
-                            drone -> !DroneControlManager.isDroneControlled(drone)
-                                    && DroneControlManager.canPlayerControlDrone(player, drone))
+            DroneEntity nearestDrone = findAvailableDrones(player, range)
                     .stream()
                     .min((d1, d2) -> Double.compare(player.distanceTo(d1), player.distanceTo(d2)))
                     .orElse(null);
@@ -164,4 +178,21 @@ public class DroneControlCommands {
             return 0;
         }
     }
+
+    // The player's loaded, uncontrolled drones within range. Only the player's own drones can be
+    // controlled, so the candidates are their loaded drones from the registry, checked against the
+    // entities' real positions; stored telemetry can be seconds old for a large fleet
+    private static List<DroneEntity> findAvailableDrones(ServerPlayerEntity player, double range) {
+        ServerWorld world = player.getServerWorld();
+        List<DroneEntity> drones = new ArrayList<>();
+        for (DroneEntity drone : DroneRegistry.getOwnerDrones(player.getServer(), player.getUuid())) {
+            if (drone.getWorld() == world
+                    && player.distanceTo(drone) <= range
+                    && !DroneControlManager.isDroneControlled(drone)
+                    && DroneControlManager.canPlayerControlDrone(player, drone)) {
+                drones.add(drone);
+            }
+        }
+        return drones;
+    }
 }
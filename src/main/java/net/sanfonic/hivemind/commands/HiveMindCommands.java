@@ -2,7 +2,6 @@ package net.sanfonic.hivemind.commands;
 
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.particle.ParticleTypes;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
@@ -18,7 +17,9 @@ import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.sanfonic.hivemind.Hivemind;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
 import net.sanfonic.hivemind.entity.DroneEntity;
+import net.sanfonic.hivemind.entity.DroneRegistry;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -297,24 +298,25 @@ public class HiveMindCommands {
                                     return 1;
                                 }
 
-                                // Link all unlinked drones
-                                int linkedCount = 0;
+                                // Link all unlinked drones as a single ledger commit
+                                int linkedCount = unlinkedDrones.size();
                                 List<String> linkedCodes = new ArrayList<>();
 
-                                for (DroneEntity drone : unlinkedDrones) {
-                                    drone.setHiveMindOwner(player.getUuid());
-                                    linkedCount++;
+                                HiveLedger.getInstance(source.getServer()).batch(() -> {
+                                    for (DroneEntity drone : unlinkedDrones) {
+                                        drone.setHiveMindOwner(player.getUuid());
 
-                                    String hiveCode = drone.getHiveCode();
-                                    if (hiveCode != null) {
-                                        linkedCodes.add(hiveCode);
-                                    }
+                                        String hiveCode = drone.getHiveCode();
+                                        if (hiveCode != null) {
+                                            linkedCodes.add(hiveCode);
+                                        }
 
-                                    // Spawn particles for each drone
-                                    if (world instanceof ServerWorld serverWorld) {
-                                        spawnLinkingParticles(serverWorld, drone.getPos());
+                                        // Spawn particles for each drone
+                                        if (world instanceof ServerWorld serverWorld) {
+                                            spawnLinkingParticles(serverWorld, drone.getPos());
+                                        }
                                     }
-                                }
+                                });
 
                                 // Play sound
                                 world.playSound(
@@ -366,26 +368,12 @@ public class HiveMindCommands {
                                     return 1;
                                 }
 
-                                // Get all entities in the world
+                                // The player's loaded drones in their world, from the drone registry
                                 World world = player.getWorld();
                                 List<DroneEntity> connectedDrones = new ArrayList<>();
-                                // Search in a large area around the player (or use world bounds)
-                                Vec3d playerPos = player.getPos();
-                                // Search in a large radius (1000 blocks) - adjust as needed
-                                Box searchBox = Box.of(
-                                        playerPos, 2000, 256, 2000
-                                ); // 2000x256x2000 search area
-
-                                List<Entity> allEntities = world.getOtherEntities(null, searchBox);
-
-                                for (Entity entity : allEntities) {
-                                    if (entity instanceof DroneEntity drone) {
-                                        if (drone.hasHiveMindOwner()) {
-                                            PlayerEntity owner = drone.getHiveMindOwnerPlayer();
-                                            if (owner != null && owner.getUuid().equals(player.getUuid())) {
-                                                connectedDrones.add(drone);
-                                            }
-                                        }
+                                for (DroneEntity drone : DroneRegistry.getOwnerDrones(source.getServer(), player.getUuid())) {
+                                    if (drone.getWorld() == world) {
+                                        connectedDrones.add(drone);
                                     }
                                 }
 
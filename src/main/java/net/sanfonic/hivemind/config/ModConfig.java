@@ -15,6 +15,9 @@ public class ModConfig {
     private static final String CONFIG_FILE_NAME = "hivemind.json";
     private static ModConfig INSTANCE;
 
+    public static final String TELEMETRY_HEAP = "heap";
+    public static final String TELEMETRY_MAPPED = "mapped";
+
     // Existing Config Options
     public boolean enableDebugLogging = false;
     public boolean enableDroneLinkingDebug = false;
@@ -33,6 +36,27 @@ public class ModConfig {
     public boolean debugAutoLink = true;
     public int debugSpawnRadius = 5; // How far from player to spawn drones
 
+    // Drone AI Options
+    public double aiLodFullDistance = 32.0; // Drones this close to a player run their full AI every tick
+    public double aiLodReducedDistance = 96.0; // Closer than this, goals are picked every aiLodGoalInterval ticks; farther, drones only finish their current path
+    public int aiLodGoalInterval = 10; // Ticks between goal evaluations of drones in the reduced tier
+    public int dormancyWakeTicks = 200; // Ticks a dormant drone stays awake after damage or a command
+    public double dormancyWakeRadius = 16.0; // Dormant drones of the same hive this close to a damaged drone wake up
+    public boolean batchedDroneTicks = false; // Run drone role and hive logic in one pass per world after entity ticking, grouped by chunk section
+
+    // Persistence Options
+    public int journalCompactionThreshold = 4096; // Journal entries before a hive shard is rewritten
+    public int shardIdleMinutes = 10; // Minutes before the hive data of offline owners is unloaded
+    public int playerCacheSize = 512; // Player data entries kept in memory
+    public int playerCacheIdleMinutes = 30; // Minutes before an offline player's data is dropped from memory
+    public String telemetryHistoryTiers = "1s:5m,30s:6h"; // interval:span pairs of the drone track history, empty to disable
+    public int telemetrySamplePeriodTicks = 20; // Ticks between telemetry refreshes of each loaded drone
+    public int telemetrySamplesPerTick = 64; // Most drones sampled in one tick; larger fleets are refreshed less often
+    public double telemetryMinMove = 1.0; // Blocks a drone must move before its stored position is rewritten
+    public double telemetryMinHealthChange = 1.0; // Health change before the stored health is rewritten
+    public double hiveTickBudgetMillis = 2.0; // Milliseconds per tick for deferred hive work; the rest carries over
+    public String telemetryBackend = TELEMETRY_HEAP; // "heap", or "mapped" to keep drone telemetry in a memory-mapped file
+
     // Transient fields (not saved to config)
     private transient Path configPath;
 
@@ -71,6 +95,31 @@ public class ModConfig {
                         this.debugUnlimitedDrones = loaded.debugUnlimitedDrones;
                         this.debugAutoLink = loaded.debugAutoLink;
                         this.debugSpawnRadius = loaded.debugSpawnRadius;
+
+                        // Load drone AI settings
+                        this.aiLodFullDistance = loaded.aiLodFullDistance;
+                        this.aiLodReducedDistance = loaded.aiLodReducedDistance;
+                        this.aiLodGoalInterval = loaded.aiLodGoalInterval;
+                        this.dormancyWakeTicks = loaded.dormancyWakeTicks;
+                        this.dormancyWakeRadius = loaded.dormancyWakeRadius;
+                        this.batchedDroneTicks = loaded.batchedDroneTicks;
+
+                        // Load persistence settings
+                        this.journalCompactionThreshold = loaded.journalCompactionThreshold;
+                        this.shardIdleMinutes = loaded.shardIdleMinutes;
+                        this.playerCacheSize = loaded.playerCacheSize;
+                        this.playerCacheIdleMinutes = loaded.playerCacheIdleMinutes;
+                        if (loaded.telemetryHistoryTiers != null) {
+                            this.telemetryHistoryTiers = loaded.telemetryHistoryTiers;
+                        }
+                        this.telemetrySamplePeriodTicks = loaded.telemetrySamplePeriodTicks;
+                        this.telemetrySamplesPerTick = loaded.telemetrySamplesPerTick;
+                        this.telemetryMinMove = loaded.telemetryMinMove;
+                        this.telemetryMinHealthChange = loaded.telemetryMinHealthChange;
+                        this.hiveTickBudgetMillis = loaded.hiveTickBudgetMillis;
+                        if (loaded.telemetryBackend != null) {
+                            this.telemetryBackend = loaded.telemetryBackend;
+                        }
                     }
                 }
                 Hivemind.LOGGER.info("Config loaded from {}", configPath);
@@ -5,6 +5,7 @@ import net.minecraft.network.packet.s2c.play.SetCameraEntityS2CPacket;
 import net.minecraft.network.packet.s2c.play.PlayerAbilitiesS2CPacket;
 import net.minecraft.entity.player.PlayerAbilities;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.sanfonic.hivemind.data.collection.UuidMap;
 import net.sanfonic.hivemind.entity.DroneEntity;
 import net.sanfonic.hivemind.network.NetworkHandler;
 import net.sanfonic.hivemind.network.packets.DroneControlPacket;
@@ -15,7 +16,7 @@ import java.util.Map;
 import java.util.UUID;
 
 public class DroneControlManager {
-    private static final Map<UUID, DroneControlSession> activeSessions = new HashMap<>();
+    private static final UuidMap<DroneControlSession> activeSessions = new UuidMap<>();
     private static final Map<UUID, PlayerState> savedPlayerStates = new HashMap<>();
 
     public static void init() {
@@ -0,0 +1,120 @@
+package net.sanfonic.hivemind.control;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.network.packet.s2c.play.EntityPositionS2CPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
+import net.sanfonic.hivemind.data.collection.UuidMap;
+import net.sanfonic.hivemind.entity.DroneEntity;
+import net.sanfonic.hivemind.entity.DroneRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Brings a player's drones to them, including drones in unloaded chunks. The chunk of an
+ * unloaded drone comes from its stored telemetry, so only chunks that hold one of the drones
+ * get a short-lived ticket; the drone is moved once its entity has loaded.
+ */
+public class DroneRecallManager {
+    // Keeps a recalled drone's chunk loaded until its entities are in; expires on its own
+    private static final ChunkTicketType<ChunkPos> RECALL_TICKET =
+            ChunkTicketType.create("hivemind_recall", Comparator.comparingLong(ChunkPos::toLong), 100);
+    private static final int RECALL_TIMEOUT_TICKS = 200;
+
+    // Drones whose chunk was loaded for a recall, waiting for their entity
+    private static final UuidMap<PendingRecall> pendingRecalls = new UuidMap<>();
+
+    private record PendingRecall(UUID playerUUID, int expiresAtTick) {
+    }
+
+    /**
+     * @param moved      Loaded drones moved to the player right away
+     * @param chunks     Chunks loaded for drones that weren't
+     * @param elsewhere  Drones in another dimension, or with no known position
+     */
+    public record Result(int moved, int chunks, int elsewhere) {
+    }
+
+    public static Result recallDrones(ServerPlayerEntity player) {
+        MinecraftServer server = player.getServer();
+        ServerWorld world = player.getServerWorld();
+        String dimensionKey = world.getRegistryKey().getValue().toString();
+        HiveLedger ledger = HiveLedger.getInstance(server);
+        ledger.ensureOwnerLoaded(player.getUuid());
+        DroneTelemetryStore telemetry = ledger.getTelemetryStore();
+
+        int moved = 0;
+        int elsewhere = 0;
+        LongSet chunks = new LongOpenHashSet();
+        for (UUID droneUUID : ledger.getLinkManager().getOwnerDrones(player.getUuid())) {
+            DroneEntity drone = DroneRegistry.get(world, droneUUID);
+            if (drone != null) {
+                moveToPlayer(drone, player);
+                moved++;
+                continue;
+            }
+            DroneTelemetryStore.DroneData data = telemetry.getDroneData(droneUUID);
+            if (data == null || !dimensionKey.equals(data.dimensionKey)) {
+                elsewhere++;
+                continue;
+            }
+            ChunkPos chunk = new ChunkPos((int) Math.floor(data.x) >> 4, (int) Math.floor(data.z) >> 4);
+            if (chunks.add(chunk.toLong())) {
+                world.getChunkManager().addTicket(RECALL_TICKET, chunk, 1, chunk);
+            }
+            pendingRecalls.put(droneUUID, new PendingRecall(player.getUuid(), server.getTicks() + RECALL_TIMEOUT_TICKS));
+        }
+        return new Result(moved, chunks.size(), elsewhere);
+    }
+
+    /**
+     * Called when a drone entity loads; finishes its recall if one is pending.
+     */
+    public static void onDroneLoaded(DroneEntity drone, ServerWorld world) {
+        PendingRecall recall = pendingRecalls.remove(drone.getUuid());
+        if (recall == null || world.getServer().getTicks() > recall.expiresAtTick()) {
+            return;
+        }
+        ServerPlayerEntity player = world.getServer().getPlayerManager().getPlayer(recall.playerUUID());
+        if (player == null || player.getServerWorld() != world) {
+            return;
+        }
+        // The entity's section is still being loaded; move it once that's done
+        world.getServer().execute(() -> {
+            if (drone.isAlive()) {
+                moveToPlayer(drone, player);
+            }
+        });
+    }
+
+    /**
+     * Forget recalls whose drone never loaded (it moved, or its telemetry was stale)
+     */
+    public static void pruneExpired(MinecraftServer server) {
+        int now = server.getTicks();
+        List<UUID> expired = new ArrayList<>();
+        pendingRecalls.forEach((droneUUID, recall) -> {
+            if (now > recall.expiresAtTick()) {
+                expired.add(droneUUID);
+            }
+        });
+        expired.forEach(pendingRecalls::remove);
+    }
+
+    private static void moveToPlayer(DroneEntity drone, ServerPlayerEntity player) {
+        drone.wake();
+        drone.teleport(player.getX(), player.getY() + 1.0, player.getZ());
+        drone.setVelocity(0, 0, 0);
+        drone.velocityDirty = true;
+        player.getServerWorld().getChunkManager().sendToNearbyPlayers(drone, new EntityPositionS2CPacket(drone));
+    }
+}
@@ -0,0 +1,254 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import net.sanfonic.hivemind.Hivemind;
+import net.sanfonic.hivemind.data.collection.UuidMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Recent track of each drone: (tick, x, y, z, health) samples in ring buffers, one per
+ * downsampling tier (by default a sample per second for 5 minutes and one per 30 seconds
+ * for 6 hours). Coarser tiers keep the latest position and the lowest health seen since
+ * their previous sample, so damage between samples still shows up.
+ * Memory per drone is bounded by the tier capacities. Kept in memory only.
+ */
+public final class DroneTelemetryHistory {
+
+    public record Sample(long tick, double x, double y, double z, float health) {
+    }
+
+    /**
+     * A sample every {@code intervalTicks}, keeping the last {@code capacity} of them.
+     */
+    public record Tier(int intervalTicks, int capacity) {
+        public long spanTicks() {
+            return (long) intervalTicks * capacity;
+        }
+    }
+
+    public static final String DEFAULT_TIERS = "1s:5m,30s:6h";
+
+    private static final int INITIAL_RING_SIZE = 16;
+
+    private final Tier[] tiers;
+    private final UuidMap<Track> tracks = new UuidMap<>();
+
+    public DroneTelemetryHistory(List<Tier> tiers) {
+        this.tiers = tiers.toArray(new Tier[0]);
+    }
+
+    /**
+     * Parse tiers written as {@code interval:span} pairs, e.g. {@code 1s:5m,30s:6h}.
+     * Units are t (ticks), s, m and h; tiers must get coarser from left to right.
+     * An empty string disables the history; invalid input falls back to the default tiers.
+     */
+    public static List<Tier> parseTiers(String spec) {
+        List<Tier> result = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        try {
+            int previousInterval = 0;
+            for (String part : spec.split(",")) {
+                String[] pair = part.trim().split(":");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected interval:span, got " + part);
+                }
+                long interval = parseTicks(pair[0]);
+                long span = parseTicks(pair[1]);
+                if (interval <= previousInterval || span < interval || interval > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Tiers must get coarser: " + part);
+                }
+                result.add(new Tier((int) interval, (int) Math.min(Integer.MAX_VALUE, span / interval)));
+                previousInterval = (int) interval;
+            }
+        } catch (IllegalArgumentException e) {
+            Hivemind.LOGGER.warn("Invalid telemetry history tiers '{}', using {}: {}",
+                    spec, DEFAULT_TIERS, e.getMessage());
+            return parseTiers(DEFAULT_TIERS);
+        }
+        return result;
+    }
+
+    private static long parseTicks(String value) {
+        String text = value.trim();
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Missing duration");
+        }
+        long factor = switch (text.charAt(text.length() - 1)) {
+            case 't' -> 1;
+            case 's' -> 20;
+            case 'm' -> 20 * 60;
+            case 'h' -> 20 * 60 * 60;
+            default -> throw new IllegalArgumentException("Unknown unit in " + text);
+        };
+        return Long.parseLong(text.substring(0, text.length() - 1)) * factor;
+    }
+
+    /**
+     * Ticks between samples of the finest tier, or 0 when the history is disabled.
+     */
+    public int getSampleInterval() {
+        return tiers.length > 0 ? tiers[0].intervalTicks() : 0;
+    }
+
+    /**
+     * Record a sample; tiers that aren't due yet only fold the health into their next sample.
+     */
+    public void record(UUID droneUUID, long tick, double x, double y, double z, float health) {
+        if (tiers.length == 0) {
+            return;
+        }
+        Track track = tracks.get(droneUUID);
+        if (track == null) {
+            track = new Track(tiers.length);
+            tracks.put(droneUUID, track);
+        }
+        track.lastTick = tick;
+        for (int t = 0; t < tiers.length; t++) {
+            track.pendingHealth[t] = Math.min(track.pendingHealth[t], health);
+            if (tick >= track.nextDue[t]) {
+                track.append(t, tiers[t].capacity(), tick, x, y, z, track.pendingHealth[t]);
+                track.pendingHealth[t] = Float.MAX_VALUE;
+                track.nextDue[t] = tick + tiers[t].intervalTicks();
+            }
+        }
+    }
+
+    /**
+     * A drone's samples between two ticks (inclusive), oldest first. Recent parts of the
+     * window come from finer tiers, older parts from coarser ones.
+     */
+    public List<Sample> getTrack(UUID droneUUID, long fromTick, long toTick) {
+        Track track = tracks.get(droneUUID);
+        if (track == null) {
+            return List.of();
+        }
+        List<List<Sample>> perTier = new ArrayList<>(tiers.length);
+        long upperBound = toTick;
+        for (int t = 0; t < tiers.length; t++) {
+            List<Sample> samples = new ArrayList<>();
+            track.collect(t, fromTick, upperBound, samples);
+            perTier.add(samples);
+            if (track.counts[t] > 0) {
+                // Coarser tiers only fill in what this tier no longer holds
+                upperBound = Math.min(upperBound, track.oldestTick(t) - 1);
+            }
+        }
+        List<Sample> result = new ArrayList<>();
+        for (int t = tiers.length - 1; t >= 0; t--) {
+            result.addAll(perTier.get(t));
+        }
+        return result;
+    }
+
+    /**
+     * Forget drones without a sample in the span of the coarsest tier.
+     */
+    public void prune(long currentTick) {
+        if (tiers.length == 0) {
+            return;
+        }
+        long cutoff = currentTick - tiers[tiers.length - 1].spanTicks();
+        List<UUID> stale = new ArrayList<>();
+        tracks.forEach((droneUUID, track) -> {
+            if (track.lastTick < cutoff) {
+                stale.add(droneUUID);
+            }
+        });
+        stale.forEach(tracks::remove);
+    }
+
+    public int getTrackedDroneCount() {
+        return tracks.size();
+    }
+
+    // Ring buffers of one drone, one per tier; each grows up to its tier's capacity
+    private static final class Track {
+        final long[][] ticks;
+        // x, y, z, health per sample
+        final float[][] values;
+        final int[] heads;
+        final int[] counts;
+        final long[] nextDue;
+        final float[] pendingHealth;
+        long lastTick;
+
+        Track(int tierCount) {
+            ticks = new long[tierCount][];
+            values = new float[tierCount][];
+            heads = new int[tierCount];
+            counts = new int[tierCount];
+            nextDue = new long[tierCount];
+            pendingHealth = new float[tierCount];
+            Arrays.fill(nextDue, Long.MIN_VALUE);
+            Arrays.fill(pendingHealth, Float.MAX_VALUE);
+        }
+
+        void append(int tier, int capacity, long tick, double x, double y, double z, float health) {
+            if (ticks[tier] == null) {
+                int size = Math.min(capacity, INITIAL_RING_SIZE);
+                ticks[tier] = new long[size];
+                values[tier] = new float[size * 4];
+            } else if (counts[tier] == ticks[tier].length && ticks[tier].length < capacity) {
+                grow(tier, Math.min(capacity, ticks[tier].length * 2));
+            }
+
+            int length = ticks[tier].length;
+            int slot = (heads[tier] + counts[tier]) % length;
+            if (counts[tier] == length) {
+                // Full: overwrite the oldest sample
+                slot = heads[tier];
+                heads[tier] = (heads[tier] + 1) % length;
+            } else {
+                counts[tier]++;
+            }
+            ticks[tier][slot] = tick;
+            values[tier][slot * 4] = (float) x;
+            values[tier][slot * 4 + 1] = (float) y;
+            values[tier][slot * 4 + 2] = (float) z;
+            values[tier][slot * 4 + 3] = health;
+        }
+
+        // Unroll the ring into larger arrays, oldest sample first
+        private void grow(int tier, int size) {
+            int length = ticks[tier].length;
+            long[] grownTicks = new long[size];
+            float[] grownValues = new float[size * 4];
+            for (int i = 0; i < counts[tier]; i++) {
+                int slot = (heads[tier] + i) % length;
+                grownTicks[i] = ticks[tier][slot];
+                System.arraycopy(values[tier], slot * 4, grownValues, i * 4, 4);
+            }
+            ticks[tier] = grownTicks;
+            values[tier] = grownValues;
+            heads[tier] = 0;
+        }
+
+        long oldestTick(int tier) {
+            return ticks[tier][heads[tier]];
+        }
+
+        void collect(int tier, long fromTick, long toTick, List<Sample> out) {
+            if (counts[tier] == 0) {
+                return;
+            }
+            int length = ticks[tier].length;
+            for (int i = 0; i < counts[tier]; i++) {
+                int slot = (heads[tier] + i) % length;
+                long tick = ticks[tier][slot];
+                if (tick < fromTick) {
+                    continue;
+                }
+                if (tick > toTick) {
+                    break;
+                }
+                float[] v = values[tier];
+                out.add(new Sample(tick, v[slot * 4], v[slot * 4 + 1], v[slot * 4 + 2], v[slot * 4 + 3]));
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import net.sanfonic.hivemind.data.collection.UuidIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the stored telemetry of loaded drones fresh. Each tick visits the next slice of the
+ * loaded drones, sized so every drone comes up once per period but capped per tick, so the
+ * cost of a tick doesn't grow with the fleet (a large fleet gets a longer period instead).
+ * A visit only writes to the {@link DroneTelemetryStore} when the drone moved or its health
+ * changed by more than the thresholds, so idle drones cost no ledger commits.
+ */
+public final class DroneTelemetrySampler {
+    private final int periodTicks;
+    private final int maxSamplesPerTick;
+    private final double minDistance;
+    private final double minHealthChange;
+
+    // Loaded drones in visiting order, and each drone's index in that list
+    private final List<TelemetrySource> drones = new ArrayList<>();
+    private final UuidIntMap indices = new UuidIntMap();
+    private int cursor = 0;
+
+    private long samples = 0;
+    private long writes = 0;
+
+    public DroneTelemetrySampler(int periodTicks, int maxSamplesPerTick, double minDistance, double minHealthChange) {
+        this.periodTicks = Math.max(1, periodTicks);
+        this.maxSamplesPerTick = Math.max(1, maxSamplesPerTick);
+        this.minDistance = minDistance;
+        this.minHealthChange = minHealthChange;
+    }
+
+    /**
+     * Start sampling a loaded drone; replaces an earlier instance with the same UUID.
+     */
+    public void add(TelemetrySource drone) {
+        int index = indices.getInt(drone.getUuid());
+        if (index >= 0) {
+            drones.set(index, drone);
+            return;
+        }
+        indices.put(drone.getUuid(), drones.size());
+        drones.add(drone);
+    }
+
+    /**
+     * Stop sampling a drone that was unloaded. Ignored if another instance with the same UUID
+     * took its place (a drone changing dimension loads again before the old one is gone).
+     *
+     * @return Whether the drone was removed
+     */
+    public boolean remove(TelemetrySource drone) {
+        int index = indices.getInt(drone.getUuid());
+        if (index < 0 || drones.get(index) != drone) {
+            return false;
+        }
+        indices.removeInt(drone.getUuid());
+        // Move the last drone into the gap
+        TelemetrySource last = drones.remove(drones.size() - 1);
+        if (index < drones.size()) {
+            drones.set(index, last);
+            indices.put(last.getUuid(), index);
+        }
+        return true;
+    }
+
+    /**
+     * Visit the next slice of drones. Call once per server tick, inside a ledger batch so the
+     * writes of one tick are committed together.
+     */
+    public void tick(DroneTelemetryStore store) {
+        int slice = Math.min(maxSamplesPerTick, (drones.size() + periodTicks - 1) / periodTicks);
+        for (int i = 0; i < slice; i++) {
+            if (cursor >= drones.size()) {
+                cursor = 0;
+            }
+            sample(store, drones.get(cursor++));
+        }
+    }
+
+    /**
+     * Sample one drone now, e.g. as it unloads, so its stored chunk is the one it stays in.
+     */
+    public void sample(DroneTelemetryStore store, TelemetrySource drone) {
+        UUID ownerUUID = drone.getHiveMindOwnerUuid();
+        if (ownerUUID == null) {
+            return;
+        }
+        samples++;
+        if (store.updateDroneDataIfChanged(drone.getUuid(), ownerUUID, drone.getX(), drone.getY(), drone.getZ(),
+                drone.getTelemetryDimension(), drone.getHealth(), drone.getMaxHealth(), minDistance, minHealthChange)) {
+            writes++;
+        }
+    }
+
+    public int getLoadedDroneCount() {
+        return drones.size();
+    }
+
+    public long getSampleCount() {
+        return samples;
+    }
+
+    public long getWriteCount() {
+        return writes;
+    }
+
+    /**
+     * Share of samples that led to a write, 0 before the first sample
+     */
+    public double getWriteRatio() {
+        return samples > 0 ? (double) writes / samples : 0;
+    }
+
+    public String getStats() {
+        return String.format("%d loaded, %d samples, %d writes (%.1f%%)",
+                drones.size(), samples, writes, getWriteRatio() * 100);
+    }
+}
@@ -1,22 +1,34 @@
 package net.sanfonic.hivemind.data.DroneData;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.world.PersistentState;
-import net.minecraft.world.PersistentStateManager;
-import net.minecraft.world.World;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
+import net.sanfonic.hivemind.data.collection.UuidIntMap;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 /**
  * Stores optional telemetry (last-known position, health) for drones.
+ * Persisted as part of the {@link HiveLedger}.
+ * Values live in fixed-width columns indexed by a per-drone slot, on the heap or in a
+ * memory-mapped file; freed slots are reused, so updates write in place without allocating.
+ * A grid of chunk-sized cells per dimension answers region and nearest-drone queries from
+ * the stored positions, without touching loaded entities.
  */
 public class DroneTelemetryStore extends PersistentState {
-    private static final String DATA_NAME = "hivemind_telemetry";
 
+    /**
+     * Copy of one drone's telemetry; changing it doesn't change the store.
+     */
     public static class DroneData {
         public UUID droneUUID;
         public UUID ownerUUID;
@@ -38,17 +50,78 @@ public class DroneTelemetryStore extends PersistentState {
         }
     }
 
-    private final Map<UUID, DroneData> droneDataMap = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 64;
+    // Dimension id of a slot that holds no drone
+    private static final short FREE = -1;
+
+    // droneUUID -> slot in the columns
+    private final UuidIntMap slots = new UuidIntMap();
+
+    private final TelemetryColumns columns;
+    private final TelemetryGrid grid;
+
+    // Slots in use so far, and the freed ones below that mark
+    private int slotCount = 0;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+
+    // Dimension id table: id -> dimension key and back
+    private final List<String> dimensionKeys = new ArrayList<>();
+    private final Object2IntOpenHashMap<String> dimensionIds = new Object2IntOpenHashMap<>();
+
+    // Ledger that persists this store; null when used standalone
+    private HiveLedger ledger;
+
+    public DroneTelemetryStore() {
+        this(new HeapTelemetryColumns(INITIAL_CAPACITY));
+    }
+
+    private DroneTelemetryStore(TelemetryColumns columns) {
+        this.columns = columns;
+        this.grid = new TelemetryGrid(columns);
+        dimensionIds.defaultReturnValue(-1);
+    }
+
+    /**
+     * Store whose columns live in a memory-mapped file instead of the Java heap.
+     * Call {@link #close()} when done with it.
+     */
+    public static DroneTelemetryStore mapped(Path file) throws IOException {
+        return new DroneTelemetryStore(MappedTelemetryColumns.open(file, INITIAL_CAPACITY));
+    }
+
+    /**
+     * Release the file of a mapped store; does nothing for heap stores.
+     */
+    public void close() {
+        columns.close();
+    }
 
     public static DroneTelemetryStore getInstance(MinecraftServer server) {
-        ServerWorld overworld = server.getWorld(World.OVERWORLD);
-        PersistentStateManager persistentStateManager = overworld.getPersistentStateManager();
+        return HiveLedger.getInstance(server).getTelemetryStore();
+    }
+
+    /**
+     * Called by the ledger that owns this store. Not for general use.
+     */
+    public void attachLedger(HiveLedger ledger) {
+        this.ledger = ledger;
+    }
 
-        return persistentStateManager.getOrCreate(
-                DroneTelemetryStore::createFromNbt,
-                DroneTelemetryStore::new,
-                DATA_NAME
-        );
+    // Route change notifications to the ledger when attached
+    private void onDroneChanged(UUID droneUUID) {
+        if (ledger != null) {
+            ledger.onDroneChanged(droneUUID);
+        } else {
+            markDirty();
+        }
+    }
+
+    // Make sure the owner's shard is loaded before changing one of their drones
+    private void requireOwner(UUID ownerUUID) {
+        if (ledger != null) {
+            ledger.ensureOwnerLoaded(ownerUUID);
+        }
     }
 
     public static DroneTelemetryStore createFromNbt(NbtCompound nbt) {
@@ -66,8 +139,7 @@ public class DroneTelemetryStore extends PersistentState {
             double health = compound.getDouble("Health");
             double maxHealth = compound.getDouble("MaxHealth");
 
-            DroneData data = new DroneData(droneUUID, ownerUUID, x, y, z, dimension, health, maxHealth);
-            manager.droneDataMap.put(droneUUID, data);
+            manager.store(droneUUID, ownerUUID, x, y, z, dimension, health, maxHealth);
         }
 
         return manager;
@@ -76,16 +148,19 @@ public class DroneTelemetryStore extends PersistentState {
     @Override
     public NbtCompound writeNbt(NbtCompound nbt) {
         NbtList list = new NbtList();
-        for (DroneData data : droneDataMap.values()) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (columns.dimension(slot) == FREE) {
+                continue;
+            }
             NbtCompound compound = new NbtCompound();
-            compound.putUuid("DroneUUID", data.droneUUID);
-            compound.putUuid("OwnerUUID", data.ownerUUID);
-            compound.putDouble("X", data.x);
-            compound.putDouble("Y", data.y);
-            compound.putDouble("Z", data.z);
-            compound.putString("Dimension", data.dimensionKey == null ? "" : data.dimensionKey);
-            compound.putDouble("Health", data.health);
-            compound.putDouble("MaxHealth", data.maxHealth);
+            compound.putUuid("DroneUUID", droneAt(slot));
+            compound.putUuid("OwnerUUID", ownerAt(slot));
+            compound.putDouble("X", columns.x(slot));
+            compound.putDouble("Y", columns.y(slot));
+            compound.putDouble("Z", columns.z(slot));
+            compound.putString("Dimension", dimensionKeys.get(columns.dimension(slot)));
+            compound.putDouble("Health", columns.health(slot));
+            compound.putDouble("MaxHealth", columns.maxHealth(slot));
             list.add(compound);
         }
         nbt.put("DroneData", list);
@@ -93,21 +168,260 @@ public class DroneTelemetryStore extends PersistentState {
     }
 
     public void updateDroneData(UUID droneUUID, UUID ownerUUID, double x, double y, double z, String dimensionKey, double health, double maxHealth) {
-        DroneData droneData = new DroneData(droneUUID, ownerUUID, x, y, z, dimensionKey, health, maxHealth);
-        droneDataMap.put(droneUUID, droneData);
-        markDirty();
+        requireOwner(ownerUUID);
+        store(droneUUID, ownerUUID, x, y, z, dimensionKey, health, maxHealth);
+        onDroneChanged(droneUUID);
     }
 
+    /**
+     * Update a drone's telemetry only if it changed noticeably: it moved more than
+     * {@code minDistance} blocks or into another chunk, its health changed by more than
+     * {@code minHealthChange}, or its owner, dimension or max health changed. Otherwise nothing
+     * is written or committed.
+     *
+     * @return Whether the telemetry was written
+     */
+    public boolean updateDroneDataIfChanged(UUID droneUUID, UUID ownerUUID, double x, double y, double z,
+                                            String dimensionKey, double health, double maxHealth,
+                                            double minDistance, double minHealthChange) {
+        int slot = slots.getInt(droneUUID);
+        if (slot >= 0 && !hasChanged(slot, ownerUUID, x, y, z, dimensionKey, health, maxHealth,
+                minDistance, minHealthChange)) {
+            return false;
+        }
+        updateDroneData(droneUUID, ownerUUID, x, y, z, dimensionKey, health, maxHealth);
+        return true;
+    }
+
+    private boolean hasChanged(int slot, UUID ownerUUID, double x, double y, double z, String dimensionKey,
+                               double health, double maxHealth, double minDistance, double minHealthChange) {
+        if (columns.ownerMsb(slot) != ownerUUID.getMostSignificantBits()
+                || columns.ownerLsb(slot) != ownerUUID.getLeastSignificantBits()
+                || columns.dimension(slot) != dimensionIds.getInt(dimensionKey == null ? "" : dimensionKey)
+                || columns.maxHealth(slot) != maxHealth
+                || Math.abs(columns.health(slot) - health) > minHealthChange
+                || TelemetryGrid.cellCoord(columns.x(slot)) != TelemetryGrid.cellCoord(x)
+                || TelemetryGrid.cellCoord(columns.z(slot)) != TelemetryGrid.cellCoord(z)) {
+            return true;
+        }
+        double dx = columns.x(slot) - x;
+        double dy = columns.y(slot) - y;
+        double dz = columns.z(slot) - z;
+        return dx * dx + dy * dy + dz * dz > minDistance * minDistance;
+    }
+
+    // Write a drone's columns, taking a slot on its first update
+    private void store(UUID droneUUID, UUID ownerUUID, double x, double y, double z, String dimensionKey,
+                       double health, double maxHealth) {
+        int slot = slots.getInt(droneUUID);
+        if (slot < 0) {
+            slot = allocateSlot();
+            slots.put(droneUUID, slot);
+            columns.setDrone(slot, droneUUID.getMostSignificantBits(), droneUUID.getLeastSignificantBits());
+        }
+        columns.setOwner(slot, ownerUUID.getMostSignificantBits(), ownerUUID.getLeastSignificantBits());
+        columns.setValues(slot, x, y, z, health, maxHealth);
+        short dimension = dimensionId(dimensionKey);
+        columns.setDimension(slot, dimension);
+        grid.put(slot, dimension, x, z);
+    }
+
+    public void removeDroneData(UUID droneUUID) {
+        int slot = slots.removeInt(droneUUID);
+        if (slot >= 0) {
+            freeSlot(slot);
+            onDroneChanged(droneUUID);
+        }
+    }
+
+    /**
+     * Copy of a drone's telemetry, or null if none is stored
+     */
     public DroneData getDroneData(UUID droneUUID) {
-        return droneDataMap.get(droneUUID);
+        int slot = slots.getInt(droneUUID);
+        return slot >= 0 ? dataAt(slot) : null;
+    }
+
+    public boolean hasDroneData(UUID droneUUID) {
+        return slots.containsKey(droneUUID);
     }
 
     public Map<UUID, DroneData> getAllDroneData() {
-        return new HashMap<>(droneDataMap);
+        Map<UUID, DroneData> result = new HashMap<>(slots.size() * 2);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (columns.dimension(slot) != FREE) {
+                DroneData data = dataAt(slot);
+                result.put(data.droneUUID, data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot of every drone with telemetry
+     */
+    public Set<UUID> getTrackedDrones() {
+        return Collections.unmodifiableSet(slots.keySet());
+    }
+
+    /**
+     * Drones whose last known position is in the given dimension
+     */
+    public List<UUID> getDronesInDimension(String dimensionKey) {
+        List<UUID> result = new ArrayList<>();
+        int id = dimensionIds.getInt(dimensionKey == null ? "" : dimensionKey);
+        if (id < 0) {
+            return result;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (columns.dimension(slot) == id) {
+                result.add(droneAt(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drones whose last known position is within {@code radius} blocks of a point
+     *
+     * @param ownerUUID Only return this owner's drones, or null for any owner
+     */
+    public List<UUID> getDronesInRadius(String dimensionKey, double x, double y, double z, double radius,
+                                        UUID ownerUUID) {
+        int dimension = dimensionIds.getInt(dimensionKey == null ? "" : dimensionKey);
+        return dronesAt(grid.inRadius(dimension, x, y, z, radius, ownedBy(ownerUUID)));
+    }
+
+    /**
+     * Drones whose last known position lies in a box, bounds included
+     *
+     * @param ownerUUID Only return this owner's drones, or null for any owner
+     */
+    public List<UUID> getDronesInBox(String dimensionKey, double minX, double minY, double minZ,
+                                     double maxX, double maxY, double maxZ, UUID ownerUUID) {
+        int dimension = dimensionIds.getInt(dimensionKey == null ? "" : dimensionKey);
+        return dronesAt(grid.inBox(dimension, minX, minY, minZ, maxX, maxY, maxZ, ownedBy(ownerUUID)));
+    }
+
+    /**
+     * Drones whose last known position is in a chunk. Stored positions are persisted with the
+     * ledger, so this also finds drones whose chunk isn't loaded.
+     */
+    public List<UUID> getDronesInChunk(String dimensionKey, int chunkX, int chunkZ) {
+        int dimension = dimensionIds.getInt(dimensionKey == null ? "" : dimensionKey);
+        return dronesAt(grid.inCell(dimension, chunkX, chunkZ));
+    }
+
+    /**
+     * Up to {@code count} drones nearest to a point by last known position, nearest first
+     *
+     * @param maxDistance Ignore drones farther away than this
+     * @param ownerUUID   Only return this owner's drones, or null for any owner
+     */
+    public List<UUID> getNearestDrones(String dimensionKey, double x, double y, double z, int count,
+                                       double maxDistance, UUID ownerUUID) {
+        int dimension = dimensionIds.getInt(dimensionKey == null ? "" : dimensionKey);
+        return dronesAt(grid.nearest(dimension, x, y, z, count, maxDistance, ownedBy(ownerUUID)));
+    }
+
+    private IntPredicate ownedBy(UUID ownerUUID) {
+        if (ownerUUID == null) {
+            return slot -> true;
+        }
+        long msb = ownerUUID.getMostSignificantBits();
+        long lsb = ownerUUID.getLeastSignificantBits();
+        return slot -> columns.ownerMsb(slot) == msb && columns.ownerLsb(slot) == lsb;
+    }
+
+    private List<UUID> dronesAt(IntArrayList found) {
+        List<UUID> result = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            result.add(droneAt(found.getInt(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Average health of an owner's drones, or 0 if none has telemetry
+     */
+    public double getAverageHealth(UUID ownerUUID) {
+        long msb = ownerUUID.getMostSignificantBits();
+        long lsb = ownerUUID.getLeastSignificantBits();
+        double total = 0;
+        int count = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (columns.dimension(slot) != FREE && columns.ownerMsb(slot) == msb && columns.ownerLsb(slot) == lsb) {
+                total += columns.health(slot);
+                count++;
+            }
+        }
+        return count > 0 ? total / count : 0;
     }
 
     public void cleanupNonExistentDrones(List<UUID> existingDroneUUIDs) {
-        droneDataMap.keySet().removeIf(droneUUID -> !existingDroneUUIDs.contains(droneUUID));
-        markDirty();
+        cleanupNonExistentDrones(new HashSet<>(existingDroneUUIDs)::contains);
+    }
+
+    /**
+     * Drop the telemetry of every drone the predicate doesn't report as existing
+     */
+    public void cleanupNonExistentDrones(Predicate<UUID> exists) {
+        List<UUID> stale = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (columns.dimension(slot) != FREE) {
+                UUID droneUUID = droneAt(slot);
+                if (!exists.test(droneUUID)) {
+                    stale.add(droneUUID);
+                }
+            }
+        }
+        stale.forEach(this::removeDroneData);
+    }
+
+    private DroneData dataAt(int slot) {
+        return new DroneData(droneAt(slot), ownerAt(slot), columns.x(slot), columns.y(slot), columns.z(slot),
+                dimensionKeys.get(columns.dimension(slot)), columns.health(slot), columns.maxHealth(slot));
+    }
+
+    private UUID droneAt(int slot) {
+        return new UUID(columns.droneMsb(slot), columns.droneLsb(slot));
+    }
+
+    private UUID ownerAt(int slot) {
+        return new UUID(columns.ownerMsb(slot), columns.ownerLsb(slot));
+    }
+
+    private short dimensionId(String dimensionKey) {
+        String key = dimensionKey == null ? "" : dimensionKey;
+        int id = dimensionIds.getInt(key);
+        if (id < 0) {
+            if (dimensionKeys.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many dimensions in drone telemetry");
+            }
+            id = dimensionKeys.size();
+            dimensionKeys.add(key);
+            dimensionIds.put(key, id);
+        }
+        return (short) id;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == columns.capacity()) {
+            columns.grow(columns.capacity() * 2);
+        }
+        columns.setSlotCount(slotCount + 1);
+        return slotCount++;
+    }
+
+    private void freeSlot(int slot) {
+        grid.remove(slot);
+        columns.setDimension(slot, FREE);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
     }
-}
\ No newline at end of file
+}
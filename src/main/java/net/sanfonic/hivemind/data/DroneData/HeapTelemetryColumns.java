@@ -0,0 +1,124 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import java.util.Arrays;
+
+/**
+ * Telemetry columns as parallel arrays on the Java heap.
+ */
+final class HeapTelemetryColumns implements TelemetryColumns {
+    private long[] droneBits;
+    private long[] ownerBits;
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private double[] healths;
+    private double[] maxHealths;
+    private short[] dimensions;
+
+    HeapTelemetryColumns(int capacity) {
+        droneBits = new long[capacity * 2];
+        ownerBits = new long[capacity * 2];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        zs = new double[capacity];
+        healths = new double[capacity];
+        maxHealths = new double[capacity];
+        dimensions = new short[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return xs.length;
+    }
+
+    @Override
+    public void grow(int capacity) {
+        if (capacity <= xs.length) {
+            return;
+        }
+        droneBits = Arrays.copyOf(droneBits, capacity * 2);
+        ownerBits = Arrays.copyOf(ownerBits, capacity * 2);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        zs = Arrays.copyOf(zs, capacity);
+        healths = Arrays.copyOf(healths, capacity);
+        maxHealths = Arrays.copyOf(maxHealths, capacity);
+        dimensions = Arrays.copyOf(dimensions, capacity);
+    }
+
+    @Override
+    public void setDrone(int slot, long msb, long lsb) {
+        droneBits[slot * 2] = msb;
+        droneBits[slot * 2 + 1] = lsb;
+    }
+
+    @Override
+    public long droneMsb(int slot) {
+        return droneBits[slot * 2];
+    }
+
+    @Override
+    public long droneLsb(int slot) {
+        return droneBits[slot * 2 + 1];
+    }
+
+    @Override
+    public void setOwner(int slot, long msb, long lsb) {
+        ownerBits[slot * 2] = msb;
+        ownerBits[slot * 2 + 1] = lsb;
+    }
+
+    @Override
+    public long ownerMsb(int slot) {
+        return ownerBits[slot * 2];
+    }
+
+    @Override
+    public long ownerLsb(int slot) {
+        return ownerBits[slot * 2 + 1];
+    }
+
+    @Override
+    public void setValues(int slot, double x, double y, double z, double health, double maxHealth) {
+        xs[slot] = x;
+        ys[slot] = y;
+        zs[slot] = z;
+        healths[slot] = health;
+        maxHealths[slot] = maxHealth;
+    }
+
+    @Override
+    public double x(int slot) {
+        return xs[slot];
+    }
+
+    @Override
+    public double y(int slot) {
+        return ys[slot];
+    }
+
+    @Override
+    public double z(int slot) {
+        return zs[slot];
+    }
+
+    @Override
+    public double health(int slot) {
+        return healths[slot];
+    }
+
+    @Override
+    public double maxHealth(int slot) {
+        return maxHealths[slot];
+    }
+
+    @Override
+    public void setDimension(int slot, short dimension) {
+        dimensions[slot] = dimension;
+    }
+
+    @Override
+    public short dimension(int slot) {
+        return dimensions[slot];
+    }
+}
@@ -0,0 +1,208 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import net.sanfonic.hivemind.Hivemind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Telemetry columns kept in a memory-mapped file instead of the Java heap. Each slot is a
+ * fixed-width record updated in place; the OS writes dirty pages back on its own.
+ * The file starts with a small header holding the schema version and the slot count.
+ * Records are not read back when the file is reopened, the ledger reloads telemetry with
+ * its owner shards.
+ */
+final class MappedTelemetryColumns implements TelemetryColumns {
+    private static final int MAGIC = 0x484D544C; // "HMTL"
+    static final int VERSION = 1;
+
+    // Header: magic, version, record width, slot count
+    private static final int HEADER_BYTES = 64;
+    private static final int HEADER_SLOT_COUNT = 12;
+
+    // Record layout
+    static final int RECORD_BYTES = 80;
+    private static final int DRONE = 0;
+    private static final int OWNER = 16;
+    private static final int X = 32;
+    private static final int Y = 40;
+    private static final int Z = 48;
+    private static final int HEALTH = 56;
+    private static final int MAX_HEALTH = 64;
+    private static final int DIMENSION = 72;
+
+    // A single mapping can't exceed 2 GB
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    private MappedTelemetryColumns(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Map the telemetry file, creating it or starting it over when its schema doesn't match.
+     */
+    static MappedTelemetryColumns open(Path file, int initialCapacity) throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedTelemetryColumns columns = new MappedTelemetryColumns(file, channel);
+        try {
+            long size = channel.size();
+            int capacity = initialCapacity;
+            if (size >= HEADER_BYTES && columns.headerMatches()) {
+                capacity = (int) Math.min(MAX_CAPACITY, Math.max(initialCapacity, (size - HEADER_BYTES) / RECORD_BYTES));
+            } else if (size > 0) {
+                Hivemind.LOGGER.info("Telemetry file {} has another schema, starting it over", file);
+                channel.truncate(0);
+            }
+            columns.map(capacity);
+            columns.buffer.putInt(0, MAGIC);
+            columns.buffer.putInt(4, VERSION);
+            columns.buffer.putInt(8, RECORD_BYTES);
+            columns.setSlotCount(0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return columns;
+    }
+
+    private boolean headerMatches() throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getInt(8) == RECORD_BYTES;
+    }
+
+    private void map(int capacity) throws IOException {
+        // Mapping past the end of the file grows it
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+        this.capacity = capacity;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void grow(int capacity) {
+        if (capacity <= this.capacity) {
+            return;
+        }
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Telemetry file " + file + " can't hold " + capacity + " drones");
+        }
+        try {
+            map(capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow telemetry file " + file, e);
+        }
+    }
+
+    @Override
+    public void setSlotCount(int slotCount) {
+        buffer.putInt(HEADER_SLOT_COUNT, slotCount);
+    }
+
+    @Override
+    public void setDrone(int slot, long msb, long lsb) {
+        int offset = offset(slot) + DRONE;
+        buffer.putLong(offset, msb);
+        buffer.putLong(offset + 8, lsb);
+    }
+
+    @Override
+    public long droneMsb(int slot) {
+        return buffer.getLong(offset(slot) + DRONE);
+    }
+
+    @Override
+    public long droneLsb(int slot) {
+        return buffer.getLong(offset(slot) + DRONE + 8);
+    }
+
+    @Override
+    public void setOwner(int slot, long msb, long lsb) {
+        int offset = offset(slot) + OWNER;
+        buffer.putLong(offset, msb);
+        buffer.putLong(offset + 8, lsb);
+    }
+
+    @Override
+    public long ownerMsb(int slot) {
+        return buffer.getLong(offset(slot) + OWNER);
+    }
+
+    @Override
+    public long ownerLsb(int slot) {
+        return buffer.getLong(offset(slot) + OWNER + 8);
+    }
+
+    @Override
+    public void setValues(int slot, double x, double y, double z, double health, double maxHealth) {
+        int offset = offset(slot);
+        buffer.putDouble(offset + X, x);
+        buffer.putDouble(offset + Y, y);
+        buffer.putDouble(offset + Z, z);
+        buffer.putDouble(offset + HEALTH, health);
+        buffer.putDouble(offset + MAX_HEALTH, maxHealth);
+    }
+
+    @Override
+    public double x(int slot) {
+        return buffer.getDouble(offset(slot) + X);
+    }
+
+    @Override
+    public double y(int slot) {
+        return buffer.getDouble(offset(slot) + Y);
+    }
+
+    @Override
+    public double z(int slot) {
+        return buffer.getDouble(offset(slot) + Z);
+    }
+
+    @Override
+    public double health(int slot) {
+        return buffer.getDouble(offset(slot) + HEALTH);
+    }
+
+    @Override
+    public double maxHealth(int slot) {
+        return buffer.getDouble(offset(slot) + MAX_HEALTH);
+    }
+
+    @Override
+    public void setDimension(int slot, short dimension) {
+        buffer.putShort(offset(slot) + DIMENSION, dimension);
+    }
+
+    @Override
+    public short dimension(int slot) {
+        return buffer.getShort(offset(slot) + DIMENSION);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            Hivemind.LOGGER.error("Failed to close telemetry file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import java.io.Closeable;
+
+/**
+ * Fixed-width telemetry records addressed by slot. UUIDs are stored as their two longs.
+ * Slots past the capacity don't exist until {@link #grow} is called.
+ */
+interface TelemetryColumns extends Closeable {
+
+    int capacity();
+
+    /**
+     * Make room for at least the given number of slots, keeping the existing ones.
+     */
+    void grow(int capacity);
+
+    void setDrone(int slot, long msb, long lsb);
+
+    long droneMsb(int slot);
+
+    long droneLsb(int slot);
+
+    void setOwner(int slot, long msb, long lsb);
+
+    long ownerMsb(int slot);
+
+    long ownerLsb(int slot);
+
+    void setValues(int slot, double x, double y, double z, double health, double maxHealth);
+
+    double x(int slot);
+
+    double y(int slot);
+
+    double z(int slot);
+
+    double health(int slot);
+
+    double maxHealth(int slot);
+
+    void setDimension(int slot, short dimension);
+
+    short dimension(int slot);
+
+    /**
+     * Number of slots in use, for backends that record it alongside the data.
+     */
+    default void setSlotCount(int slotCount) {
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,338 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Grid of 16x16 block cells (one per chunk column) over the telemetry slots of each dimension,
+ * kept in step with the store's writes. Queries only visit the cells their area covers, and
+ * walk the occupied cells instead when the area spans more cells than are occupied.
+ */
+final class TelemetryGrid {
+    private static final int CELL_SHIFT = 4;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final TelemetryColumns columns;
+    // Per dimension id: cell key -> slots positioned in that cell
+    private final List<Long2ObjectOpenHashMap<IntArrayList>> dimensions = new ArrayList<>();
+
+    // Per slot: indexed dimension (-1 if none), cell key and index in the cell's slot list
+    private int[] slotDimensions = new int[0];
+    private long[] slotCells = new long[0];
+    private int[] slotIndices = new int[0];
+
+    TelemetryGrid(TelemetryColumns columns) {
+        this.columns = columns;
+    }
+
+    static int cellCoord(double blockCoord) {
+        return (int) Math.floor(blockCoord) >> CELL_SHIFT;
+    }
+
+    // Same layout as ChunkPos.toLong
+    static long cellKey(int cellX, int cellZ) {
+        return (cellX & 0xFFFFFFFFL) | ((cellZ & 0xFFFFFFFFL) << 32);
+    }
+
+    /**
+     * Index a slot at a position, moving it out of its previous cell if it changed
+     */
+    void put(int slot, int dimension, double x, double z) {
+        long key = cellKey(cellCoord(x), cellCoord(z));
+        if (slot < slotDimensions.length && slotDimensions[slot] == dimension && slotCells[slot] == key) {
+            return;
+        }
+        remove(slot);
+        ensureSlot(slot);
+        while (dimensions.size() <= dimension) {
+            dimensions.add(new Long2ObjectOpenHashMap<>());
+        }
+        Long2ObjectOpenHashMap<IntArrayList> cells = dimensions.get(dimension);
+        IntArrayList cell = cells.get(key);
+        if (cell == null) {
+            cell = new IntArrayList(4);
+            cells.put(key, cell);
+        }
+        slotDimensions[slot] = dimension;
+        slotCells[slot] = key;
+        slotIndices[slot] = cell.size();
+        cell.add(slot);
+    }
+
+    void remove(int slot) {
+        if (slot >= slotDimensions.length || slotDimensions[slot] < 0) {
+            return;
+        }
+        Long2ObjectOpenHashMap<IntArrayList> cells = dimensions.get(slotDimensions[slot]);
+        IntArrayList cell = cells.get(slotCells[slot]);
+        // Move the cell's last slot into the gap
+        int index = slotIndices[slot];
+        int last = cell.removeInt(cell.size() - 1);
+        if (index < cell.size()) {
+            cell.set(index, last);
+            slotIndices[last] = index;
+        }
+        if (cell.isEmpty()) {
+            cells.remove(slotCells[slot]);
+        }
+        slotDimensions[slot] = -1;
+    }
+
+    /**
+     * Slots in one cell, which is also one chunk column
+     */
+    IntArrayList inCell(int dimension, int cellX, int cellZ) {
+        Long2ObjectOpenHashMap<IntArrayList> cells = cellsOf(dimension);
+        IntArrayList cell = cells != null ? cells.get(cellKey(cellX, cellZ)) : null;
+        return cell != null ? new IntArrayList(cell) : new IntArrayList();
+    }
+
+    /**
+     * Slots in a dimension whose position lies in the box, bounds included
+     */
+    IntArrayList inBox(int dimension, double minX, double minY, double minZ,
+                       double maxX, double maxY, double maxZ, IntPredicate filter) {
+        IntArrayList result = new IntArrayList();
+        forEachCell(dimension, cellCoord(minX), cellCoord(minZ), cellCoord(maxX), cellCoord(maxZ), cell -> {
+            for (int i = 0; i < cell.size(); i++) {
+                int slot = cell.getInt(i);
+                double x = columns.x(slot);
+                double y = columns.y(slot);
+                double z = columns.z(slot);
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ
+                        && filter.test(slot)) {
+                    result.add(slot);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Slots in a dimension within {@code radius} blocks of a point
+     */
+    IntArrayList inRadius(int dimension, double x, double y, double z, double radius, IntPredicate filter) {
+        IntArrayList result = new IntArrayList();
+        double radiusSq = radius * radius;
+        forEachCell(dimension, cellCoord(x - radius), cellCoord(z - radius),
+                cellCoord(x + radius), cellCoord(z + radius), cell -> {
+                    for (int i = 0; i < cell.size(); i++) {
+                        int slot = cell.getInt(i);
+                        if (distanceSq(slot, x, y, z) <= radiusSq && filter.test(slot)) {
+                            result.add(slot);
+                        }
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Up to {@code count} slots nearest to a point and within {@code maxDistance}, nearest first.
+     * Rings of cells are searched outwards from the point's cell until no unsearched cell can
+     * hold anything nearer than the candidates found so far.
+     */
+    IntArrayList nearest(int dimension, double x, double y, double z, int count, double maxDistance,
+                         IntPredicate filter) {
+        Long2ObjectOpenHashMap<IntArrayList> cells = cellsOf(dimension);
+        if (cells == null || count <= 0) {
+            return new IntArrayList();
+        }
+        NearestHeap heap = new NearestHeap(count);
+        double maxDistanceSq = maxDistance * maxDistance;
+        int centerX = cellCoord(x);
+        int centerZ = cellCoord(z);
+        Consumer<IntArrayList> scan = cell -> {
+            for (int i = 0; i < cell.size(); i++) {
+                int slot = cell.getInt(i);
+                double distanceSq = distanceSq(slot, x, y, z);
+                if (distanceSq <= maxDistanceSq && filter.test(slot)) {
+                    heap.offer(slot, distanceSq);
+                }
+            }
+        };
+
+        int visited = 0;
+        for (int ring = 0; visited < cells.size(); ring++) {
+            long side = 2L * ring + 1;
+            if (side * side > cells.size()) {
+                // The ring covers more cells than are occupied: scan the rest directly
+                for (Long2ObjectMap.Entry<IntArrayList> entry : cells.long2ObjectEntrySet()) {
+                    long key = entry.getLongKey();
+                    int dx = Math.abs((int) key - centerX);
+                    int dz = Math.abs((int) (key >>> 32) - centerZ);
+                    if (Math.max(dx, dz) >= ring) {
+                        scan.accept(entry.getValue());
+                    }
+                }
+                break;
+            }
+            visited += visitRing(cells, centerX, centerZ, ring, scan);
+            // Every cell outside this ring is at least ring * CELL_SIZE blocks away
+            double reach = (double) ring * CELL_SIZE;
+            if (reach * reach > maxDistanceSq || (heap.isFull() && heap.worst() <= reach * reach)) {
+                break;
+            }
+        }
+        return heap.drainNearestFirst();
+    }
+
+    // Visit the occupied cells at Chebyshev distance ring from the center; returns how many
+    private static int visitRing(Long2ObjectOpenHashMap<IntArrayList> cells, int centerX, int centerZ, int ring,
+                                 Consumer<IntArrayList> action) {
+        if (ring == 0) {
+            return visitCell(cells, centerX, centerZ, action);
+        }
+        int visited = 0;
+        for (int dx = -ring; dx <= ring; dx++) {
+            visited += visitCell(cells, centerX + dx, centerZ - ring, action);
+            visited += visitCell(cells, centerX + dx, centerZ + ring, action);
+        }
+        for (int dz = -ring + 1; dz < ring; dz++) {
+            visited += visitCell(cells, centerX - ring, centerZ + dz, action);
+            visited += visitCell(cells, centerX + ring, centerZ + dz, action);
+        }
+        return visited;
+    }
+
+    private static int visitCell(Long2ObjectOpenHashMap<IntArrayList> cells, int cellX, int cellZ,
+                                 Consumer<IntArrayList> action) {
+        IntArrayList cell = cells.get(cellKey(cellX, cellZ));
+        if (cell == null) {
+            return 0;
+        }
+        action.accept(cell);
+        return 1;
+    }
+
+    // Visit the occupied cells in a range of cell coordinates, bounds included
+    private void forEachCell(int dimension, int minCellX, int minCellZ, int maxCellX, int maxCellZ,
+                             Consumer<IntArrayList> action) {
+        Long2ObjectOpenHashMap<IntArrayList> cells = cellsOf(dimension);
+        if (cells == null) {
+            return;
+        }
+        long area = ((long) maxCellX - minCellX + 1) * ((long) maxCellZ - minCellZ + 1);
+        if (area > cells.size()) {
+            for (Long2ObjectMap.Entry<IntArrayList> entry : cells.long2ObjectEntrySet()) {
+                long key = entry.getLongKey();
+                int cellX = (int) key;
+                int cellZ = (int) (key >>> 32);
+                if (cellX >= minCellX && cellX <= maxCellX && cellZ >= minCellZ && cellZ <= maxCellZ) {
+                    action.accept(entry.getValue());
+                }
+            }
+            return;
+        }
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                visitCell(cells, cellX, cellZ, action);
+            }
+        }
+    }
+
+    private Long2ObjectOpenHashMap<IntArrayList> cellsOf(int dimension) {
+        return dimension >= 0 && dimension < dimensions.size() ? dimensions.get(dimension) : null;
+    }
+
+    private double distanceSq(int slot, double x, double y, double z) {
+        double dx = columns.x(slot) - x;
+        double dy = columns.y(slot) - y;
+        double dz = columns.z(slot) - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot < slotDimensions.length) {
+            return;
+        }
+        int oldSize = slotDimensions.length;
+        int size = Math.max(slot + 1, oldSize * 2);
+        slotDimensions = Arrays.copyOf(slotDimensions, size);
+        Arrays.fill(slotDimensions, oldSize, size, -1);
+        slotCells = Arrays.copyOf(slotCells, size);
+        slotIndices = Arrays.copyOf(slotIndices, size);
+    }
+
+    // Bounded max-heap on distance, keeping the nearest candidates seen so far
+    private static final class NearestHeap {
+        private final int[] slots;
+        private final double[] distances;
+        private int size = 0;
+
+        NearestHeap(int capacity) {
+            slots = new int[capacity];
+            distances = new double[capacity];
+        }
+
+        boolean isFull() {
+            return size == slots.length;
+        }
+
+        double worst() {
+            return distances[0];
+        }
+
+        void offer(int slot, double distance) {
+            if (size < slots.length) {
+                int i = size++;
+                // Sift up
+                while (i > 0) {
+                    int parent = (i - 1) >> 1;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    slots[i] = slots[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                slots[i] = slot;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                siftDown(slot, distance);
+            }
+        }
+
+        // Replace the root and restore the heap
+        private void siftDown(int slot, double distance) {
+            int i = 0;
+            for (;;) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && distances[child + 1] > distances[child]) {
+                    child++;
+                }
+                if (distances[child] <= distance) {
+                    break;
+                }
+                slots[i] = slots[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            slots[i] = slot;
+            distances[i] = distance;
+        }
+
+        IntArrayList drainNearestFirst() {
+            int[] ordered = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ordered[i] = slots[0];
+                int lastSlot = slots[size - 1];
+                double lastDistance = distances[size - 1];
+                size--;
+                if (size > 0) {
+                    siftDown(lastSlot, lastDistance);
+                }
+            }
+            return IntArrayList.wrap(ordered);
+        }
+    }
+}
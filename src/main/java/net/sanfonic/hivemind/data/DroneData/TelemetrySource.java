@@ -0,0 +1,27 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import java.util.UUID;
+
+/**
+ * A loaded drone as seen by the {@link DroneTelemetrySampler}.
+ */
+public interface TelemetrySource {
+    UUID getUuid();
+
+    /**
+     * Owner of the drone, or null while it isn't linked
+     */
+    UUID getHiveMindOwnerUuid();
+
+    double getX();
+
+    double getY();
+
+    double getZ();
+
+    String getTelemetryDimension();
+
+    float getHealth();
+
+    float getMaxHealth();
+}
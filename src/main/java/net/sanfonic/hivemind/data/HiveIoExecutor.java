@@ -0,0 +1,100 @@
+package net.sanfonic.hivemind.data;
+
+import net.sanfonic.hivemind.Hivemind;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single background thread for HiveMind file I/O.
+ * Tasks run in submission order, so a later save of the same file always wins.
+ * The thread is a daemon; the server calls {@link #flush()} on shutdown so nothing is lost.
+ */
+public final class HiveIoExecutor {
+    private static final long FLUSH_TIMEOUT_SECONDS = 60;
+
+    private static ExecutorService executor;
+
+    /**
+     * Work that writes to disk. Failures are logged with the task name.
+     */
+    @FunctionalInterface
+    public interface IoTask {
+        void run() throws IOException;
+    }
+
+    private HiveIoExecutor() {
+    }
+
+    public static synchronized void submit(String name, IoTask task) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "HiveMind-IO");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                Hivemind.LOGGER.error("HiveMind I/O task '{}' failed", name, e);
+            }
+        });
+    }
+
+    /**
+     * Block until every task submitted so far has finished.
+     */
+    public static void flush() {
+        Future<?> barrier;
+        synchronized (HiveIoExecutor.class) {
+            if (executor == null) {
+                return;
+            }
+            barrier = executor.submit(() -> {
+            });
+        }
+
+        try {
+            barrier.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Hivemind.LOGGER.error("Timed out waiting for HiveMind I/O to finish", e);
+        }
+    }
+
+    /**
+     * Writes the content of a file to the given path.
+     */
+    @FunctionalInterface
+    public interface FileWriter {
+        void write(File file) throws IOException;
+    }
+
+    /**
+     * Write a file through a temporary sibling and move it into place, so a crash
+     * leaves either the old or the new file but never a truncated one.
+     */
+    public static void writeAtomically(File file, FileWriter writer) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        writer.write(temp.toFile());
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.dimension.DimensionType;
+import net.sanfonic.hivemind.Hivemind;
+import net.sanfonic.hivemind.data.collection.UuidSet;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Drops the hive records of drones that no longer exist anywhere in the world, by mark and
+ * sweep. A drone in an unloaded chunk still exists, so the marked drones are the ones
+ * {@link DroneRegionScanner} finds in the saved entity files, plus every drone loaded since the
+ * server started: a loaded drone's saved copy can be older than the scan, or not written yet.
+ * The sweep then visits each record once and keeps the marked ones.
+ */
+final class DroneReconciler {
+    private static DroneReconciler current;
+
+    // Drones known to exist; server thread only
+    private final UuidSet marked = new UuidSet();
+    private boolean scanning = false;
+
+    private DroneReconciler() {
+    }
+
+    /**
+     * Start tracking loaded drones; call before any world loads.
+     */
+    static void prepare() {
+        current = new DroneReconciler();
+    }
+
+    static void onDroneLoaded(UUID droneUUID) {
+        if (current != null) {
+            current.marked.add(droneUUID);
+        }
+    }
+
+    /**
+     * Scan the saved entity files in the background and clean up once the scan is done.
+     */
+    static void start(MinecraftServer server) {
+        DroneReconciler reconciler = current;
+        if (reconciler == null || reconciler.scanning) {
+            return;
+        }
+        reconciler.scanning = true;
+
+        Path root = server.getSavePath(WorldSavePath.ROOT);
+        List<Path> entityDirs = new ArrayList<>();
+        for (ServerWorld world : server.getWorlds()) {
+            entityDirs.add(DimensionType.getSaveDirectory(world.getRegistryKey(), root).resolve("entities"));
+        }
+        long startNanos = System.nanoTime();
+        DroneRegionScanner.scanAsync(entityDirs, DroneRegionScanner.DRONE_ENTITY_ID)
+                .whenComplete((saved, error) -> server.execute(() -> {
+                    if (current != reconciler) {
+                        // The server stopped while the scan ran
+                        return;
+                    }
+                    current = null;
+                    if (error != null) {
+                        Hivemind.LOGGER.warn("Skipped drone cleanup, saved entities could not be read", error);
+                        return;
+                    }
+                    reconciler.cleanup(server, saved, (System.nanoTime() - startNanos) / 1_000_000);
+                }));
+    }
+
+    static void stop() {
+        current = null;
+    }
+
+    private void cleanup(MinecraftServer server, Set<UUID> saved, long scanMillis) {
+        saved.forEach(marked::add);
+
+        HiveLedger ledger = HiveLedger.getInstance(server);
+        ledger.batch(() -> {
+            ledger.getLinkManager().cleanupNonExistentDrones(marked::contains);
+            ledger.getTelemetryStore().cleanupNonExistentDrones(marked::contains);
+            ledger.getCodeManager().cleanupInvalidCodes(marked::contains);
+        });
+        Hivemind.LOGGER.info("Reconciled hive records against {} existing drones (entity scan took {} ms)",
+                marked.size(), scanMillis);
+    }
+}
@@ -0,0 +1,353 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtType;
+import net.minecraft.nbt.scanner.NbtScanner;
+import net.sanfonic.hivemind.Hivemind;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Finds the drones saved in a world's entity region files ({@code entities/r.X.Z.mca}) without
+ * loading any chunk. Files are read on a small pool of worker threads, and each chunk is
+ * streamed through an {@link NbtScanner} that only looks at entity ids, UUIDs and passengers.
+ */
+final class DroneRegionScanner {
+    static final String DRONE_ENTITY_ID = Hivemind.MOD_ID + ":drone";
+
+    private static final int SECTOR_BYTES = 4096;
+    private static final int CHUNKS_PER_REGION = 1024;
+    private static final int COMPRESSION_GZIP = 1;
+    private static final int COMPRESSION_ZLIB = 2;
+    private static final int COMPRESSION_NONE = 3;
+    // Set on the compression byte when the chunk is too large for the region and sits in a .mcc file
+    private static final int EXTERNAL_FLAG = 0x80;
+
+    private DroneRegionScanner() {
+    }
+
+    /**
+     * Scan every region file in the given entity folders (missing folders are skipped).
+     * Completes exceptionally if any file can't be read, since a partial set would make
+     * the drones in that file look deleted.
+     *
+     * @return UUIDs of all saved entities with the given id, passengers included
+     */
+    static CompletableFuture<Set<UUID>> scanAsync(List<Path> entityDirs, String entityId) {
+        List<Path> files = new ArrayList<>();
+        try {
+            for (Path dir : entityDirs) {
+                if (Files.isDirectory(dir)) {
+                    try (Stream<Path> entries = Files.list(dir)) {
+                        entries.filter(DroneRegionScanner::isRegionFile).forEach(files::add);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Set<UUID> found = ConcurrentHashMap.newKeySet();
+        if (files.isEmpty()) {
+            return CompletableFuture.completedFuture(found);
+        }
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "HiveMind-RegionScan");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[files.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            Path file = files.get(i);
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    scanRegionFile(file, entityId, found::add);
+                } catch (IOException e) {
+                    throw new RegionScanException(file, e);
+                }
+            }, workers);
+        }
+        return CompletableFuture.allOf(tasks)
+                .thenApply(ignored -> found)
+                .whenComplete((result, error) -> workers.shutdown());
+    }
+
+    /**
+     * Report every entity with the given id saved in one region file. A chunk with a broken
+     * header entry, length or compression fails the whole file: skipping it would leave its
+     * drones out of the set and get their records deleted.
+     */
+    static void scanRegionFile(Path file, String entityId, Consumer<UUID> found) throws IOException {
+        int[] region = regionCoords(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                // Created but never written
+                return;
+            }
+            if (size < 2L * SECTOR_BYTES) {
+                throw new IOException("Truncated region header");
+            }
+            ByteBuffer header = ByteBuffer.allocate(SECTOR_BYTES);
+            readFully(channel, header, 0);
+
+            EntityScanner scanner = new EntityScanner(entityId, found);
+            for (int index = 0; index < CHUNKS_PER_REGION; index++) {
+                int location = header.getInt(index * 4);
+                long offset = (long) (location >>> 8) * SECTOR_BYTES;
+                int sectors = location & 0xFF;
+                if (location == 0) {
+                    continue;
+                }
+                if (offset < 2L * SECTOR_BYTES || sectors == 0 || offset + 5 > size) {
+                    throw new IOException("Invalid location of chunk " + index);
+                }
+
+                ByteBuffer chunk = ByteBuffer.allocate((int) Math.min((long) sectors * SECTOR_BYTES, size - offset));
+                readFully(channel, chunk, offset);
+                int length = chunk.getInt(0);
+                int compression = chunk.get(4) & 0xFF;
+                InputStream raw;
+                if ((compression & EXTERNAL_FLAG) != 0) {
+                    int chunkX = region[0] * 32 + (index & 31);
+                    int chunkZ = region[1] * 32 + (index >> 5);
+                    raw = Files.newInputStream(file.resolveSibling("c." + chunkX + "." + chunkZ + ".mcc"));
+                } else if (length >= 1 && length <= chunk.limit() - 4) {
+                    raw = new ByteArrayInputStream(chunk.array(), 5, length - 1);
+                } else {
+                    throw new IOException("Invalid length of chunk " + index);
+                }
+
+                InputStream decompressed = switch (compression & ~EXTERNAL_FLAG) {
+                    case COMPRESSION_GZIP -> new GZIPInputStream(raw);
+                    case COMPRESSION_ZLIB -> new InflaterInputStream(raw);
+                    case COMPRESSION_NONE -> raw;
+                    default -> null;
+                };
+                if (decompressed == null) {
+                    raw.close();
+                    throw new IOException("Unknown compression " + compression + " of chunk " + index);
+                }
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(decompressed))) {
+                    scanner.reset();
+                    NbtIo.scan(input, scanner);
+                }
+            }
+        }
+    }
+
+    private static boolean isRegionFile(Path path) {
+        return regionCoords(path) != null;
+    }
+
+    // Region coordinates from an r.X.Z.mca file name, or null for other files
+    private static int[] regionCoords(Path path) {
+        String[] parts = path.getFileName().toString().split("\\.");
+        if (parts.length != 4 || !parts[0].equals("r") || !parts[3].equals("mca")) {
+            return null;
+        }
+        try {
+            return new int[]{Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of region file");
+            }
+        }
+    }
+
+    static final class RegionScanException extends RuntimeException {
+        RegionScanException(Path file, IOException cause) {
+            super("Could not read entity region file " + file, cause);
+        }
+    }
+
+    /**
+     * Walks the {@code Entities} list of one chunk, and the {@code Passengers} of each entity,
+     * reporting entities whose id matches. Everything else is skipped unread.
+     */
+    private static final class EntityScanner implements NbtScanner {
+
+        private enum Context {ROOT, ENTITIES, ENTITY}
+
+        private final String entityId;
+        private final Consumer<UUID> found;
+
+        private final Deque<Context> contexts = new ArrayDeque<>();
+        // Id and UUID of each entity being read, innermost passenger first
+        private final Deque<String> ids = new ArrayDeque<>();
+        private final Deque<UUID> uuids = new ArrayDeque<>();
+        private String key;
+
+        EntityScanner(String entityId, Consumer<UUID> found) {
+            this.entityId = entityId;
+            this.found = found;
+        }
+
+        void reset() {
+            contexts.clear();
+            ids.clear();
+            uuids.clear();
+        }
+
+        @Override
+        public Result start(NbtType<?> rootType) {
+            if (rootType != NbtCompound.TYPE) {
+                return Result.HALT;
+            }
+            contexts.push(Context.ROOT);
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public NestedResult visitSubNbtType(NbtType<?> type) {
+            return NestedResult.ENTER;
+        }
+
+        @Override
+        public NestedResult startSubNbt(NbtType<?> type, String key) {
+            this.key = key;
+            Context context = contexts.peek();
+            if (context == Context.ROOT && type == NbtList.TYPE && key.equals("Entities")) {
+                contexts.push(Context.ENTITIES);
+                return NestedResult.ENTER;
+            }
+            if (context == Context.ENTITY) {
+                if (type == NbtList.TYPE && key.equals("Passengers")) {
+                    contexts.push(Context.ENTITIES);
+                    return NestedResult.ENTER;
+                }
+                if (type != NbtCompound.TYPE && type != NbtList.TYPE && (key.equals("id") || key.equals("UUID"))) {
+                    return NestedResult.ENTER;
+                }
+            }
+            return NestedResult.SKIP;
+        }
+
+        @Override
+        public NestedResult startListItem(NbtType<?> type, int index) {
+            if (contexts.peek() != Context.ENTITIES || type != NbtCompound.TYPE) {
+                return NestedResult.SKIP;
+            }
+            contexts.push(Context.ENTITY);
+            ids.push("");
+            // ArrayDeque takes no nulls; a zero UUID stands for "not read yet"
+            uuids.push(new UUID(0, 0));
+            return NestedResult.ENTER;
+        }
+
+        @Override
+        public Result visitListMeta(NbtType<?> entryType, int length) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result endNested() {
+            if (contexts.pop() == Context.ENTITY) {
+                String id = ids.pop();
+                UUID uuid = uuids.pop();
+                if (id.equals(entityId) && (uuid.getMostSignificantBits() != 0 || uuid.getLeastSignificantBits() != 0)) {
+                    found.accept(uuid);
+                }
+            }
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitString(String value) {
+            if (contexts.peek() == Context.ENTITY && key.equals("id")) {
+                ids.pop();
+                ids.push(value);
+            }
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitIntArray(int[] value) {
+            if (contexts.peek() == Context.ENTITY && key.equals("UUID") && value.length == 4) {
+                uuids.pop();
+                uuids.push(new UUID((long) value[0] << 32 | value[1] & 0xFFFFFFFFL,
+                        (long) value[2] << 32 | value[3] & 0xFFFFFFFFL));
+            }
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitEnd() {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitByte(byte value) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitShort(short value) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitInt(int value) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitLong(long value) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitFloat(float value) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitDouble(double value) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitByteArray(byte[] value) {
+            return Result.CONTINUE;
+        }
+
+        @Override
+        public Result visitLongArray(long[] value) {
+            return Result.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+/**
+ * A HiveCode packed into a long: the owner's index in the code manager's owner table in the
+ * high half and the owner's drone number in the low half. Codes are only unique per owner,
+ * so both halves together identify one drone. The text form (D-001) is only built for display.
+ */
+public final class HiveCode {
+    public static final String PREFIX = "D-";
+
+    // Returned by lookups when a drone has no code
+    public static final long NONE = -1L;
+
+    // Text forms of the most common numbers, filled on first use
+    private static final int CACHED_NUMBERS = 1024;
+    private static final String[] TEXT_CACHE = new String[CACHED_NUMBERS];
+
+    private HiveCode() {
+    }
+
+    public static long pack(int ownerIndex, int number) {
+        return ((long) ownerIndex << 32) | (number & 0xFFFFFFFFL);
+    }
+
+    public static int ownerIndex(long code) {
+        return (int) (code >>> 32);
+    }
+
+    public static int number(long code) {
+        return (int) code;
+    }
+
+    /**
+     * Text form of a drone number
+     *
+     * @param number The drone number (1, 2, 3, etc.)
+     * @return Formatted HiveCode (D-001, D-002, etc.)
+     */
+    public static String format(int number) {
+        if (number < 0 || number >= CACHED_NUMBERS) {
+            return render(number);
+        }
+        String text = TEXT_CACHE[number];
+        if (text == null) {
+            // Racing threads build the same string, so an unsynchronized fill is harmless
+            text = render(number);
+            TEXT_CACHE[number] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Drone number of a HiveCode in text form
+     *
+     * @param hiveCode The HiveCode string
+     * @return The drone number, or -1 if invalid
+     */
+    public static int parse(String hiveCode) {
+        if (hiveCode == null || !hiveCode.startsWith(PREFIX)) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(hiveCode, PREFIX.length(), hiveCode.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String render(int number) {
+        if (number < 0) {
+            return PREFIX + String.format("%03d", number);
+        }
+        if (number < 10) {
+            return PREFIX + "00" + number;
+        }
+        if (number < 100) {
+            return PREFIX + "0" + number;
+        }
+        return PREFIX + number;
+    }
+}
@@ -1,50 +1,99 @@
 package net.sanfonic.hivemind.data.HiveMindData;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectRBTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMaps;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.world.PersistentState;
-import net.minecraft.world.PersistentStateManager;
-import net.minecraft.world.World;
 import net.sanfonic.hivemind.Hivemind;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 /**
  * Manages HiveCode assignment for drones with PER-PLAYER counters
  * Each player has their own drone numbering D-001, D-002, D-003, etc.
  * Numbers are never reused - if D-002 dies, the next drone is D-004
+ * Codes are held as packed {@link HiveCode} longs and only rendered as text for display
+ * Persisted as part of the {@link HiveLedger}
  */
 public class HiveCodeManager extends PersistentState {
-    private static final String DATA_NAME = "hivemind_hivecodes";
-    private static final String HIVECODE_PREFIX = "D-";
 
     // Per-player counter: ownerUUID -> next available drone number
-    private final Map<UUID, Integer> playerNextDroneNumber = new HashMap<>();
+    private final Object2IntOpenHashMap<UUID> playerNextDroneNumber = new Object2IntOpenHashMap<>();
 
-    // Maps: droneUUID <-> HiveCode (permanent assignments)
-    private final Map<UUID, String> droneToCode = new HashMap<>();
-    private final Map<String, UUID> codeToDrone = new HashMap<>();
+    // Owner table: the owner index packed into each HiveCode points in here
+    private final List<UUID> owners = new ArrayList<>();
+    private final Object2IntOpenHashMap<UUID> ownerIndices = new Object2IntOpenHashMap<>();
+    // Owner table slots released by forgetOwner, reused before the table grows
+    private final IntArrayList freeOwnerSlots = new IntArrayList();
 
-    // Maps: HiveCode -> ownerUUID (for quick ownership lookup)
-    private final Map<String, UUID> codeToOwner = new HashMap<>();
+    // Maps: droneUUID <-> packed HiveCode (permanent assignments)
+    private final Object2LongOpenHashMap<UUID> droneToCode = new Object2LongOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<UUID> codeToDrone = new Long2ObjectOpenHashMap<>();
+
+    // Per-owner index, parallel to the owner table: drone number -> droneUUID, in number order
+    private final List<Int2ObjectRBTreeMap<UUID>> ownerCodes = new ArrayList<>();
+
+    // Ledger that persists this manager; null when used standalone
+    private HiveLedger ledger;
 
     /**
-     * Get or create the HiveCodeManager instance
+     * Get the HiveCodeManager instance held by the server's ledger
      */
     public static HiveCodeManager getInstance(MinecraftServer server) {
-        ServerWorld overworld = server.getWorld(World.OVERWORLD);
-        PersistentStateManager stateManager = overworld.getPersistentStateManager();
+        return HiveLedger.getInstance(server).getCodeManager();
+    }
+
+    public HiveCodeManager() {
+        ownerIndices.defaultReturnValue(-1);
+        droneToCode.defaultReturnValue(HiveCode.NONE);
+    }
 
-        return stateManager.getOrCreate(
-                HiveCodeManager::createFromNbt,
-                HiveCodeManager::new,
-                DATA_NAME
-        );
+    void attachLedger(HiveLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    // Route change notifications to the ledger when attached
+    private void onDroneChanged(UUID droneUUID) {
+        if (ledger != null) {
+            ledger.onDroneChanged(droneUUID);
+        } else {
+            markDirty();
+        }
+    }
+
+    private void onCounterChanged(UUID ownerUUID) {
+        if (ledger != null) {
+            ledger.onCounterChanged(ownerUUID);
+        } else {
+            markDirty();
+        }
+    }
+
+    // Make sure the owner's shard is loaded before reading or changing their codes
+    private void requireOwner(UUID ownerUUID) {
+        if (ledger != null) {
+            ledger.ensureOwnerLoaded(ownerUUID);
+        }
     }
 
     /**
@@ -73,9 +122,7 @@ public class HiveCodeManager extends PersistentState {
             String hiveCode = mapping.getString("HiveCode");
             UUID ownerUUID = mapping.getUuid("OwnerUUID");
 
-            manager.droneToCode.put(droneUUID, hiveCode);
-            manager.codeToDrone.put(hiveCode, droneUUID);
-            manager.codeToOwner.put(hiveCode, ownerUUID);
+            manager.restoreHiveCode(droneUUID, ownerUUID, hiveCode);
         }
         return manager;
     }
@@ -87,7 +134,7 @@ public class HiveCodeManager extends PersistentState {
      * @return Formatted HiveCode (D-001, D-002, etc.)
      */
     public static String formatHiveCode(int number) {
-        return HIVECODE_PREFIX + String.format("%03d", number);
+        return HiveCode.format(number);
     }
 
     /**
@@ -97,37 +144,75 @@ public class HiveCodeManager extends PersistentState {
      * @return The drone number, or -1 if invalid
      */
     public static int parseHiveCodeNumber(String hiveCode) {
-        if (hiveCode == null || !hiveCode.startsWith(HIVECODE_PREFIX)) {
-            return -1;
+        return HiveCode.parse(hiveCode);
+    }
+
+    // Index of an owner in the owner table, adding it on first use
+    private int internOwner(UUID ownerUUID) {
+        int index = ownerIndices.getInt(ownerUUID);
+        if (index < 0) {
+            if (freeOwnerSlots.isEmpty()) {
+                index = owners.size();
+                owners.add(ownerUUID);
+                ownerCodes.add(new Int2ObjectRBTreeMap<>());
+            } else {
+                index = freeOwnerSlots.popInt();
+                owners.set(index, ownerUUID);
+                ownerCodes.set(index, new Int2ObjectRBTreeMap<>());
+            }
+            ownerIndices.put(ownerUUID, index);
         }
+        return index;
+    }
 
-        try {
-            String numberPart = hiveCode.substring(HIVECODE_PREFIX.length());
-            return Integer.parseInt(numberPart);
-        } catch (NumberFormatException e) {
-            return -1;
+    // Packed code of an owner's HiveCode text, or HiveCode.NONE if it can't exist
+    private long lookupCode(String hiveCode, UUID ownerUUID) {
+        int index = ownerIndices.getInt(ownerUUID);
+        int number = HiveCode.parse(hiveCode);
+        if (index < 0 || number < 0) {
+            return HiveCode.NONE;
         }
+        return HiveCode.pack(index, number);
+    }
+
+    private void assignCode(UUID droneUUID, long code) {
+        long previous = droneToCode.put(droneUUID, code);
+        if (previous != HiveCode.NONE && previous != code) {
+            unindexCode(previous);
+        }
+        codeToDrone.put(code, droneUUID);
+        ownerCodes.get(HiveCode.ownerIndex(code)).put(HiveCode.number(code), droneUUID);
+    }
+
+    private void unindexCode(long code) {
+        codeToDrone.remove(code);
+        ownerCodes.get(HiveCode.ownerIndex(code)).remove(HiveCode.number(code));
+    }
+
+    // Number-ordered codes of an owner, or null if the owner never had one
+    private Int2ObjectRBTreeMap<UUID> codesOf(UUID ownerUUID) {
+        int index = ownerIndices.getInt(ownerUUID);
+        return index >= 0 ? ownerCodes.get(index) : null;
     }
 
     @Override
     public NbtCompound writeNbt(NbtCompound nbt) {
         // Save per-player counters
         NbtCompound countersNbt = new NbtCompound();
-        for (Map.Entry<UUID, Integer> entry : playerNextDroneNumber.entrySet()) {
-            countersNbt.putInt(entry.getKey().toString(), entry.getValue());
+        for (Object2IntMap.Entry<UUID> entry : playerNextDroneNumber.object2IntEntrySet()) {
+            countersNbt.putInt(entry.getKey().toString(), entry.getIntValue());
         }
         nbt.put("PlayerCounters", countersNbt);
 
         // Save drone code mappings
         NbtList mappingsList = new NbtList();
-        for (Map.Entry<UUID, String> entry : droneToCode.entrySet()) {
+        for (Object2LongMap.Entry<UUID> entry : droneToCode.object2LongEntrySet()) {
             NbtCompound mapping = new NbtCompound();
-            UUID droneUUID = entry.getKey();
-            String hiveCode = entry.getValue();
+            long code = entry.getLongValue();
 
-            mapping.putUuid("DroneUUID", droneUUID);
-            mapping.putString("HiveCode", hiveCode);
-            mapping.putUuid("OwnerUUID", codeToOwner.get(hiveCode));
+            mapping.putUuid("DroneUUID", entry.getKey());
+            mapping.putString("HiveCode", HiveCode.format(HiveCode.number(code)));
+            mapping.putUuid("OwnerUUID", owners.get(HiveCode.ownerIndex(code)));
             mappingsList.add(mapping);
         }
         nbt.put("CodeMappings", mappingsList);
@@ -142,28 +227,81 @@ public class HiveCodeManager extends PersistentState {
      * @return The generated HiveCode (e.g., "D-001")
      */
     public String generateHiveCode(UUID droneUUID, UUID ownerUUID) {
+        // The counter lives in the owner's shard
+        requireOwner(ownerUUID);
         // Check if drone already has a code
-        if (droneToCode.containsKey(droneUUID)) {
-            return droneToCode.get(droneUUID);
+        long existing = droneToCode.getLong(droneUUID);
+        if (existing != HiveCode.NONE) {
+            return HiveCode.format(HiveCode.number(existing));
         }
         // Generate new code
         int droneNumber = playerNextDroneNumber.getOrDefault(ownerUUID, 1);
         //Increment counter for next drone
         playerNextDroneNumber.put(ownerUUID, droneNumber + 1);
-        // Generate code
-        String hiveCode = HIVECODE_PREFIX + String.format("%03d", droneNumber);
         // Store Mappings
-        droneToCode.put(droneUUID, hiveCode);
-        codeToDrone.put(hiveCode, droneUUID);
-        codeToOwner.put(hiveCode, ownerUUID);
+        assignCode(droneUUID, HiveCode.pack(internOwner(ownerUUID), droneNumber));
+        String hiveCode = HiveCode.format(droneNumber);
 
         Hivemind.LOGGER.debug("Generated HiveCode {} for player {} (player's drone #{})",
                 hiveCode, ownerUUID.toString().substring(0, 8), droneNumber);
 
-        markDirty();
+        onCounterChanged(ownerUUID);
+        onDroneChanged(droneUUID);
         return hiveCode;
     }
 
+    /**
+     * Re-register a previously assigned HiveCode without touching dirty state
+     * Used when loading saved records
+     */
+    void restoreHiveCode(UUID droneUUID, UUID ownerUUID, String hiveCode) {
+        int number = HiveCode.parse(hiveCode);
+        if (number < 0) {
+            Hivemind.LOGGER.warn("Skipping invalid HiveCode {} of drone {}", hiveCode, droneUUID);
+            return;
+        }
+        assignCode(droneUUID, HiveCode.pack(internOwner(ownerUUID), number));
+    }
+
+    void restorePlayerCounter(UUID ownerUUID, int nextNumber) {
+        playerNextDroneNumber.put(ownerUUID, nextNumber);
+    }
+
+    /**
+     * Drop an owner whose shard unloaded: their counter, and their owner table slot once none of
+     * their codes is held any more, so the slot can be handed to another owner
+     */
+    void forgetOwner(UUID ownerUUID) {
+        playerNextDroneNumber.removeInt(ownerUUID);
+        int index = ownerIndices.getInt(ownerUUID);
+        if (index >= 0 && ownerCodes.get(index).isEmpty()) {
+            ownerIndices.removeInt(ownerUUID);
+            owners.set(index, null);
+            ownerCodes.set(index, null);
+            freeOwnerSlots.add(index);
+        }
+    }
+
+    // Owners with a counter or a slot in the owner table
+    Set<UUID> getKnownOwners() {
+        Set<UUID> known = new HashSet<>(playerNextDroneNumber.keySet());
+        known.addAll(ownerIndices.keySet());
+        return known;
+    }
+
+    // Owner table slots in use, for tests
+    int getOwnerSlotCount() {
+        return ownerIndices.size();
+    }
+
+    Object2IntMap<UUID> getPlayerCounters() {
+        return Object2IntMaps.unmodifiable(playerNextDroneNumber);
+    }
+
+    Set<UUID> getCodedDrones() {
+        return Collections.unmodifiableSet(droneToCode.keySet());
+    }
+
     /**
      * Get the HiveCode for a Drone
      *
@@ -171,7 +309,8 @@ public class HiveCodeManager extends PersistentState {
      * @return The HiveCode, or null if not assigned
      */
     public String getHiveCode(UUID droneUUID) {
-        return droneToCode.get(droneUUID);
+        long code = droneToCode.getLong(droneUUID);
+        return code != HiveCode.NONE ? HiveCode.format(HiveCode.number(code)) : null;
     }
 
     /**
@@ -181,24 +320,20 @@ public class HiveCodeManager extends PersistentState {
      * @return The drone's UUID, or null if not found
      */
     public UUID getDroneFromCode(String hiveCode, UUID ownerUUID) {
-        UUID droneUUID = codeToDrone.get(hiveCode);
-        if (droneUUID != null) {
-            UUID codeOwner = codeToOwner.get(hiveCode);
-            if (ownerUUID.equals(codeOwner)) {
-                return droneUUID;
-            }
-        }
-        return null;
+        requireOwner(ownerUUID);
+        long code = lookupCode(hiveCode, ownerUUID);
+        return code != HiveCode.NONE ? codeToDrone.get(code) : null;
     }
 
     /**
-     * Get the owner of a drone by HiveCode
+     * Get the owner a drone's HiveCode was issued to
      *
-     * @param hiveCode The HiveCode
-     * @return The owner's UUID, or null if not assigned
+     * @param droneUUID The drone's UUID
+     * @return The owner's UUID, or null if the drone has no code
      */
-    public UUID getOwnerFromCode(String hiveCode) {
-        return codeToOwner.get(hiveCode);
+    public UUID getCodeOwner(UUID droneUUID) {
+        long code = droneToCode.getLong(droneUUID);
+        return code != HiveCode.NONE ? owners.get(HiveCode.ownerIndex(code)) : null;
     }
 
     /**
@@ -208,8 +343,9 @@ public class HiveCodeManager extends PersistentState {
      * @return true if the code exists for this player
      */
     public boolean isCodeInUseByPlayer(String hiveCode, UUID ownerUUID) {
-        UUID codeOwner = codeToOwner.get(hiveCode);
-        return codeOwner != null && codeOwner.equals(hiveCode);
+        requireOwner(ownerUUID);
+        long code = lookupCode(hiveCode, ownerUUID);
+        return code != HiveCode.NONE && codeToDrone.containsKey(code);
     }
 
     /**
@@ -218,32 +354,68 @@ public class HiveCodeManager extends PersistentState {
      * @param droneUUID The drone's UUID
      */
     public void removeHiveCode(UUID droneUUID) {
-        String hiveCode = droneToCode.remove(droneUUID);
-        if (hiveCode != null) {
-            codeToDrone.remove(hiveCode);
-            codeToOwner.remove(hiveCode);
-            Hivemind.LOGGER.debug("Removed HiveCode {} (number not reused)", hiveCode);
-            markDirty();
+        long code = droneToCode.removeLong(droneUUID);
+        if (code != HiveCode.NONE) {
+            unindexCode(code);
+            Hivemind.LOGGER.debug("Removed HiveCode {} (number not reused)", HiveCode.format(HiveCode.number(code)));
+            onDroneChanged(droneUUID);
         }
     }
 
     /**
      * Get all HiveCodes owned by a player
+     * Only touches this player's codes, not every drone on the server
      *
      * @param ownerUUID The owner's UUID
-     * @return Map of HiveCode -> DroneUUID for this player
+     * @return Map of HiveCode -> DroneUUID for this player, in drone number order
      */
     public Map<String, UUID> getOwnerDroneCodes(UUID ownerUUID) {
-        Map<String, UUID> result = new HashMap<>();
-        for (Map.Entry<String, UUID> entry : codeToOwner.entrySet()) {
-            if (entry.getValue().equals(ownerUUID)) {
-                String code = entry.getKey();
-                result.put(code, codeToDrone.get(code));
+        return getOwnerDroneCodesFrom(ownerUUID, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get one page of the HiveCodes owned by a player, in drone number order
+     * Seeks straight to the first number; for the next page pass the number after the last code returned
+     *
+     * @param ownerUUID The owner's UUID
+     * @param fromNumber The first drone number to include
+     * @param limit Codes per page
+     * @return Map of HiveCode -> DroneUUID for this page; empty past the last code
+     */
+    public Map<String, UUID> getOwnerDroneCodesFrom(UUID ownerUUID, int fromNumber, int limit) {
+        Map<String, UUID> result = new LinkedHashMap<>();
+        int max = Math.max(1, limit);
+        for (Int2ObjectMap.Entry<UUID> entry : getOwnerDroneNumbers(ownerUUID).tailMap(fromNumber).int2ObjectEntrySet()) {
+            if (result.size() == max) {
+                break;
             }
+            result.put(HiveCode.format(entry.getIntKey()), entry.getValue());
         }
         return result;
     }
 
+    /**
+     * Read-only view of a player's drones by drone number, in number order
+     * The view follows later changes; copy it before changing codes while iterating
+     *
+     * @param ownerUUID The owner's UUID
+     * @return Map of drone number -> DroneUUID for this player
+     */
+    public Int2ObjectSortedMap<UUID> getOwnerDroneNumbers(UUID ownerUUID) {
+        requireOwner(ownerUUID);
+        Int2ObjectSortedMap<UUID> codes = codesOf(ownerUUID);
+        return codes != null ? Int2ObjectSortedMaps.unmodifiable(codes) : Int2ObjectSortedMaps.emptyMap();
+    }
+
+    /**
+     * Number of HiveCodes a player currently holds
+     */
+    public int getOwnerCodeCount(UUID ownerUUID) {
+        requireOwner(ownerUUID);
+        Int2ObjectSortedMap<UUID> codes = codesOf(ownerUUID);
+        return codes != null ? codes.size() : 0;
+    }
+
     /**
      * Get the next drone number for a player (fir display purposes
      *
@@ -251,6 +423,7 @@ public class HiveCodeManager extends PersistentState {
      * @return The next drone number that will be assigned
      */
     public int getPlayerNextDroneNumber(UUID ownerUUID) {
+        requireOwner(ownerUUID);
         return playerNextDroneNumber.getOrDefault(ownerUUID, 1);
     }
 
@@ -259,17 +432,21 @@ public class HiveCodeManager extends PersistentState {
      *
      * @param existingDroneUUIDs List of currently existing drone UUIDs
      */
-    public void cleanupInvalidCodes(java.util.List<UUID> existingDroneUUIDs) {
-        droneToCode.keySet().removeIf(droneUUID -> !existingDroneUUIDs.contains(droneUUID));
-
-        // Rebuild reverse mappings
-        codeToDrone.clear();
-        codeToOwner.clear();
-        for (Map.Entry<UUID, String> entry : droneToCode.entrySet()) {
-            codeToDrone.put(entry.getValue(), entry.getKey());
-            // Note: owner mapping will need to be rebuilt from HiveMindLinkManager
-        }
+    public void cleanupInvalidCodes(List<UUID> existingDroneUUIDs) {
+        cleanupInvalidCodes(new HashSet<>(existingDroneUUIDs)::contains);
+    }
 
-        markDirty();
+    /**
+     * Remove the codes of every drone the predicate doesn't report as existing
+     */
+    public void cleanupInvalidCodes(Predicate<UUID> exists) {
+        // Collect first: removing commits the drone's record, which must no longer see the code
+        List<UUID> stale = new ArrayList<>();
+        for (UUID droneUUID : droneToCode.keySet()) {
+            if (!exists.test(droneUUID)) {
+                stale.add(droneUUID);
+            }
+        }
+        stale.forEach(this::removeHiveCode);
     }
 }
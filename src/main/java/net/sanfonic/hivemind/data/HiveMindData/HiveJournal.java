@@ -0,0 +1,294 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.sanfonic.hivemind.Hivemind;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of ledger mutations, stored as numbered segment files.
+ * Each entry is [int length][long seq, byte op, body][int crc32]. Every entry carries a
+ * sequence number; the ledger snapshot records the last one it contains, so replay skips
+ * everything already folded into the snapshot and a torn tail is simply cut off.
+ * Appending and {@link #takePending()} belong to the server thread; the file operations may run
+ * on the I/O thread instead, one at a time and in submission order.
+ */
+final class HiveJournal implements AutoCloseable {
+    static final byte OP_PUT = 1;
+    static final byte OP_REMOVE = 2;
+    static final byte OP_COUNTER = 3;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int MAX_ENTRY_SIZE = 1 << 16;
+
+    /**
+     * Receives replayed entries in the order they were written.
+     */
+    interface Visitor {
+        void put(HiveRecord record);
+
+        void remove(UUID droneUUID);
+
+        void counter(UUID ownerUUID, int nextNumber);
+    }
+
+    private final Path directory;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+    private final DataOutputStream entryOut = new DataOutputStream(entryBytes);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel segment;
+    private long segmentIndex;
+    private long lastSeq;
+    private int entriesSinceSnapshot;
+
+    private HiveJournal(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Open the journal in a directory, replaying every entry newer than the snapshot
+     * into the visitor. Appends go to a fresh segment.
+     */
+    static HiveJournal open(Path directory, long snapshotSeq, Visitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        HiveJournal journal = new HiveJournal(directory);
+        journal.lastSeq = snapshotSeq;
+
+        List<Long> segments = journal.listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (!journal.replaySegment(segments.get(i), snapshotSeq, visitor)) {
+                // Anything after a damaged entry can't be ordered reliably
+                for (int j = i + 1; j < segments.size(); j++) {
+                    Hivemind.LOGGER.warn("Discarding hive journal segment {} after a damaged entry", segments.get(j));
+                    Files.deleteIfExists(journal.segmentPath(segments.get(j)));
+                }
+                break;
+            }
+        }
+
+        long nextIndex = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        journal.openSegment(nextIndex);
+        return journal;
+    }
+
+    // Returns false if the segment ended in a damaged entry (which is cut off)
+    private boolean replaySegment(long index, long snapshotSeq, Visitor visitor) throws IOException {
+        Path path = segmentPath(index);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer data = ByteBuffer.wrap(bytes);
+
+        while (data.remaining() > 0) {
+            int start = data.position();
+            if (data.remaining() < 4) {
+                return truncate(path, start);
+            }
+            int length = data.getInt();
+            if (length <= 0 || length > MAX_ENTRY_SIZE || data.remaining() < length + 4) {
+                return truncate(path, start);
+            }
+
+            crc.reset();
+            crc.update(bytes, data.position(), length);
+            int expected = data.getInt(data.position() + length);
+            if ((int) crc.getValue() != expected) {
+                return truncate(path, start);
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, data.position(), length));
+            long seq = in.readLong();
+            byte op = in.readByte();
+            if (seq > snapshotSeq) {
+                switch (op) {
+                    case OP_PUT -> visitor.put(HiveRecord.read(in));
+                    case OP_REMOVE -> visitor.remove(HiveRecord.readUuid(in));
+                    case OP_COUNTER -> visitor.counter(HiveRecord.readUuid(in), in.readInt());
+                    default -> {
+                        return truncate(path, start);
+                    }
+                }
+                entriesSinceSnapshot++;
+            }
+            lastSeq = Math.max(lastSeq, seq);
+            data.position(data.position() + length + 4);
+        }
+        return true;
+    }
+
+    private boolean truncate(Path path, int validLength) throws IOException {
+        Hivemind.LOGGER.warn("Hive journal segment {} has a damaged tail, truncating at byte {}",
+                path.getFileName(), validLength);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(validLength);
+        }
+        return false;
+    }
+
+    void appendPut(HiveRecord record) throws IOException {
+        beginEntry(OP_PUT);
+        record.write(entryOut);
+        endEntry();
+    }
+
+    void appendRemove(UUID droneUUID) throws IOException {
+        beginEntry(OP_REMOVE);
+        HiveRecord.writeUuid(entryOut, droneUUID);
+        endEntry();
+    }
+
+    void appendCounter(UUID ownerUUID, int nextNumber) throws IOException {
+        beginEntry(OP_COUNTER);
+        HiveRecord.writeUuid(entryOut, ownerUUID);
+        entryOut.writeInt(nextNumber);
+        endEntry();
+    }
+
+    private void beginEntry(byte op) throws IOException {
+        entryBytes.reset();
+        entryOut.writeLong(++lastSeq);
+        entryOut.writeByte(op);
+    }
+
+    // Frame the pending entry and queue it for the next flush
+    private void endEntry() throws IOException {
+        byte[] payload = entryBytes.toByteArray();
+        crc.reset();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+        entriesSinceSnapshot++;
+    }
+
+    /**
+     * Write all entries appended since the last flush to the active segment.
+     */
+    void flush() throws IOException {
+        write(takePending());
+    }
+
+    /**
+     * Take the entries appended since the last call, framed and ready for {@link #write(byte[])}.
+     */
+    byte[] takePending() {
+        byte[] entries = buffer.toByteArray();
+        buffer.reset();
+        return entries;
+    }
+
+    /**
+     * Append framed entries to the active segment.
+     */
+    void write(byte[] entries) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(entries);
+        while (data.hasRemaining()) {
+            segment.write(data);
+        }
+    }
+
+    /**
+     * Start a new segment so everything written so far can be discarded once a snapshot
+     * containing it is safely on disk.
+     *
+     * @return the index of the new segment; pass it to {@link #discardBefore(long)}
+     */
+    long rotate() throws IOException {
+        flush();
+        markSnapshotted();
+        return nextSegment();
+    }
+
+    /**
+     * Start counting the entries of the next snapshot; the server thread half of {@link #rotate()}.
+     */
+    void markSnapshotted() {
+        entriesSinceSnapshot = 0;
+    }
+
+    /**
+     * Close the active segment and append to a new one; the file half of {@link #rotate()}.
+     * Write the pending entries first.
+     *
+     * @return the index of the new segment
+     */
+    long nextSegment() throws IOException {
+        if (segment.isOpen()) {
+            segment.force(false);
+            segment.close();
+        }
+        openSegment(segmentIndex + 1);
+        return segmentIndex;
+    }
+
+    /**
+     * Delete every segment older than the given index.
+     * Only touches files that are no longer appended to, so it may run on the I/O thread.
+     */
+    void discardBefore(long index) throws IOException {
+        for (long existing : listSegments()) {
+            if (existing < index) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    long getLastSeq() {
+        return lastSeq;
+    }
+
+    int getEntriesSinceSnapshot() {
+        return entriesSinceSnapshot;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null && segment.isOpen()) {
+            flush();
+            segment.force(false);
+            segment.close();
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        segmentIndex = index;
+        segment = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%08d%s", index, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> indices = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        indices.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                        // Not one of ours
+                    }
+                }
+            });
+        }
+        indices.sort(null);
+        return indices;
+    }
+}
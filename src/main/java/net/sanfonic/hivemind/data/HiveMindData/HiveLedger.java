@@ -0,0 +1,890 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.PersistentStateManager;
+import net.minecraft.world.World;
+import net.sanfonic.hivemind.Hivemind;
+import net.sanfonic.hivemind.config.ModConfig;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryHistory;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetrySampler;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+import net.sanfonic.hivemind.data.HiveIoExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Single persistent ledger for all per-drone hive state.
+ * Owns the link, HiveCode and telemetry managers and stores one record per drone
+ * (owner, code, last telemetry), so a mutation touching all three costs one commit.
+ * <p>
+ * On a server the records are split into {@link HiveShard}s by owner UUID hash. Each shard
+ * has its own snapshot file and {@link HiveJournal}, and is only read when one of its owners
+ * is needed (a player joins, a drone of theirs loads, or their drones are queried). Shards
+ * nobody touched for a while are evicted again, so memory follows the active players rather
+ * than every drone ever made. Committed changes are appended to the owning shard's journal;
+ * a shard snapshot is only rewritten once its journal grows past the compaction threshold.
+ * <p>
+ * The state manager only sees a small index file naming the shard count. Worlds saved with
+ * the single ledger file (or the older per-manager files) are split into shards once on load.
+ */
+public class HiveLedger extends PersistentState {
+    private static final String DATA_NAME = "hivemind_shards";
+    static final int DEFAULT_SHARD_COUNT = 64;
+    // Mapped telemetry columns, inside the shard directory
+    private static final String TELEMETRY_FILE = "telemetry.bin";
+
+    // Unsharded ledger and its journal, read once to migrate into shards
+    private static final String UNSHARDED_LEDGER = "hivemind_ledger";
+    private static final String UNSHARDED_JOURNAL = "hivemind_journal";
+
+    // Files written by the managers before they were merged into the ledger
+    private static final String LEGACY_LINKS = "hivemind_links";
+    private static final String LEGACY_CODES = "hivemind_hivecodes";
+    private static final String LEGACY_TELEMETRY = "hivemind_telemetry";
+
+    // Ledger of the running server, released when the server stops
+    private static HiveLedger active;
+
+    private final HiveMindLinkManager linkManager;
+    private final HiveCodeManager codeManager;
+    private final DroneTelemetryStore telemetryStore;
+    // Recent drone tracks; not persisted
+    private DroneTelemetryHistory telemetryHistory =
+            new DroneTelemetryHistory(DroneTelemetryHistory.parseTiers(DroneTelemetryHistory.DEFAULT_TIERS));
+    // Loaded drones whose telemetry is refreshed from the server tick; not persisted
+    private DroneTelemetrySampler telemetrySampler = new DroneTelemetrySampler(20, 64, 1.0, 1.0);
+
+    // Open batch() calls; changes inside a batch are committed once when the outermost one ends
+    private int batchDepth = 0;
+    private final Set<UUID> pendingDrones = new LinkedHashSet<>();
+    private final Set<UUID> pendingCounters = new LinkedHashSet<>();
+
+    // State manager the ledger was registered with; null when not attached to a server
+    private PersistentStateManager stateManager;
+    // Runs the results of background writes on the server thread; inline when not attached to a server
+    private Executor mainThread = Runnable::run;
+
+    // Null when the ledger isn't backed by shard files
+    private HiveShard[] shards;
+    // Shard each held drone was loaded from or last committed to
+    private final Map<UUID, HiveShard> droneShards = new HashMap<>();
+    private boolean replaying = false;
+    private int compactionThreshold = Integer.MAX_VALUE;
+
+    public HiveLedger() {
+        this(new HiveMindLinkManager(), new HiveCodeManager(), new DroneTelemetryStore());
+    }
+
+    private HiveLedger(HiveMindLinkManager linkManager, HiveCodeManager codeManager,
+                       DroneTelemetryStore telemetryStore) {
+        this.linkManager = linkManager;
+        this.codeManager = codeManager;
+        this.telemetryStore = telemetryStore;
+        linkManager.attachLedger(this);
+        codeManager.attachLedger(this);
+        telemetryStore.attachLedger(this);
+    }
+
+    public static HiveLedger getInstance(MinecraftServer server) {
+        ServerWorld overworld = server.getWorld(World.OVERWORLD);
+        PersistentStateManager persistentStateManager = overworld.getPersistentStateManager();
+
+        HiveLedger ledger = active;
+        if (ledger != null && ledger.stateManager == persistentStateManager) {
+            return ledger;
+        }
+
+        Path dataDirectory = server.getSavePath(WorldSavePath.ROOT).resolve("data");
+        ModConfig config = ModConfig.getInstance();
+        ledger = open(dataDirectory, config.journalCompactionThreshold,
+                ModConfig.TELEMETRY_MAPPED.equalsIgnoreCase(config.telemetryBackend));
+        ledger.stateManager = persistentStateManager;
+        ledger.mainThread = server;
+        ledger.telemetryHistory = new DroneTelemetryHistory(
+                DroneTelemetryHistory.parseTiers(config.telemetryHistoryTiers));
+        ledger.telemetrySampler = new DroneTelemetrySampler(config.telemetrySamplePeriodTicks,
+                config.telemetrySamplesPerTick, config.telemetryMinMove, config.telemetryMinHealthChange);
+        persistentStateManager.set(DATA_NAME, ledger);
+        return ledger;
+    }
+
+    /**
+     * Open the sharded ledger of a data directory and make it the active one. No shard is
+     * loaded yet; if the world still has unsharded data it is split into shards first.
+     */
+    static HiveLedger open(Path dataDirectory, int compactionThreshold) {
+        return open(dataDirectory, compactionThreshold, false);
+    }
+
+    /**
+     * @param mappedTelemetry keep telemetry in a memory-mapped file in the shard directory
+     */
+    static HiveLedger open(Path dataDirectory, int compactionThreshold, boolean mappedTelemetry) {
+        Path indexFile = dataDirectory.resolve(DATA_NAME + ".dat");
+        Path shardDirectory = dataDirectory.resolve(DATA_NAME);
+        boolean firstOpen = !Files.exists(indexFile) && !Files.isDirectory(shardDirectory);
+
+        int shardCount = DEFAULT_SHARD_COUNT;
+        if (Files.exists(indexFile)) {
+            try {
+                int saved = NbtIo.readCompressed(indexFile.toFile()).getCompound("data").getInt("ShardCount");
+                if (saved > 0) {
+                    shardCount = saved;
+                }
+            } catch (IOException | RuntimeException e) {
+                Hivemind.LOGGER.error("Could not read {}, assuming {} shards", indexFile, shardCount, e);
+            }
+        }
+
+        DroneTelemetryStore telemetry = new DroneTelemetryStore();
+        if (mappedTelemetry) {
+            Path telemetryFile = shardDirectory.resolve(TELEMETRY_FILE);
+            try {
+                telemetry = DroneTelemetryStore.mapped(telemetryFile);
+            } catch (IOException e) {
+                Hivemind.LOGGER.error("Could not map {}, keeping telemetry on the heap", telemetryFile, e);
+            }
+        }
+
+        HiveLedger ledger = new HiveLedger(new HiveMindLinkManager(), new HiveCodeManager(), telemetry);
+        ledger.compactionThreshold = Math.max(1, compactionThreshold);
+        ledger.shards = new HiveShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            ledger.shards[i] = new HiveShard(i, shardDirectory);
+        }
+
+        if (active != null && active != ledger) {
+            active.close();
+        }
+        active = ledger;
+
+        try {
+            Files.createDirectories(shardDirectory);
+            if (firstOpen) {
+                ledger.migrate(dataDirectory);
+                ledger.writeIndex(indexFile.toFile());
+            }
+        } catch (IOException e) {
+            Hivemind.LOGGER.error("Could not prepare hive shard storage in {}", shardDirectory, e);
+            ledger.markDirty();
+        }
+        return ledger;
+    }
+
+    /**
+     * Split unsharded data into shard snapshots. Written synchronously since the shards
+     * are read from those files from now on; the old files are left on disk untouched.
+     */
+    private void migrate(Path dataDirectory) throws IOException {
+        HiveLedger unsharded = readUnsharded(dataDirectory);
+        if (unsharded == null) {
+            return;
+        }
+
+        List<List<UUID>> shardDrones = new ArrayList<>(shards.length);
+        List<Object2IntOpenHashMap<UUID>> shardCounters = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            shardDrones.add(new ArrayList<>());
+            shardCounters.add(new Object2IntOpenHashMap<>());
+        }
+        for (UUID droneUUID : unsharded.getKnownDrones()) {
+            HiveRecord record = unsharded.captureRecord(droneUUID);
+            if (record != null) {
+                shardDrones.get(shardIndex(record.ownerUUID)).add(droneUUID);
+            }
+        }
+        for (Object2IntMap.Entry<UUID> entry : unsharded.codeManager.getPlayerCounters().object2IntEntrySet()) {
+            shardCounters.get(shardIndex(entry.getKey())).put(entry.getKey(), entry.getIntValue());
+        }
+
+        int written = 0;
+        for (HiveShard shard : shards) {
+            if (shardDrones.get(shard.index).isEmpty() && shardCounters.get(shard.index).isEmpty()) {
+                continue;
+            }
+            HiveSnapshot snapshot = HiveSnapshot.capture(shardDrones.get(shard.index),
+                    shardCounters.get(shard.index), unsharded.linkManager, unsharded.codeManager,
+                    unsharded.telemetryStore, 0);
+            writeSnapshot(shard.snapshotFile.toFile(), snapshot);
+            written++;
+        }
+        Hivemind.LOGGER.info("Split hive data into {} of {} shards", written, shards.length);
+    }
+
+    /**
+     * Read the single-file ledger (plus its journal), or the per-manager files before that.
+     * Returns null if the directory holds neither.
+     */
+    static HiveLedger readUnsharded(Path dataDirectory) {
+        File file = dataDirectory.resolve(UNSHARDED_LEDGER + ".dat").toFile();
+        Path journalDirectory = dataDirectory.resolve(UNSHARDED_JOURNAL);
+        if (!file.exists() && !Files.isDirectory(journalDirectory)) {
+            return readLegacy(dataDirectory);
+        }
+
+        HiveLedger ledger = new HiveLedger();
+        HiveNbtScanner scanner = new HiveNbtScanner(ledger.linkManager, ledger.codeManager, ledger.telemetryStore);
+        long snapshotSeq = 0;
+        ledger.replaying = true;
+        try {
+            if (file.exists()) {
+                scanner.scan(file);
+                snapshotSeq = scanner.getJournalSeq();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Same as vanilla: an unreadable file starts empty, the journal still replays on top
+            Hivemind.LOGGER.error("Could not load {}, starting from the journal only", file, e);
+        }
+
+        if (Files.isDirectory(journalDirectory)) {
+            try (HiveJournal journal = HiveJournal.open(journalDirectory, snapshotSeq, ledger.replayInto())) {
+                Hivemind.LOGGER.debug("Replayed {} unsharded journal entries", journal.getEntriesSinceSnapshot());
+            } catch (IOException e) {
+                Hivemind.LOGGER.error("Could not replay {}", journalDirectory, e);
+            }
+        }
+        ledger.replaying = false;
+        Hivemind.LOGGER.debug("Loaded {} unsharded hive records", scanner.getRecordCount());
+        return ledger;
+    }
+
+    // Adopt the data of the old per-manager files; null if there are none
+    private static HiveLedger readLegacy(Path dataDirectory) {
+        HiveLedger ledger = new HiveLedger();
+        HiveNbtScanner scanner = new HiveNbtScanner(ledger.linkManager, ledger.codeManager, ledger.telemetryStore);
+
+        boolean migrated = false;
+        ledger.replaying = true;
+        for (String legacyName : new String[]{LEGACY_LINKS, LEGACY_CODES, LEGACY_TELEMETRY}) {
+            File legacyFile = dataDirectory.resolve(legacyName + ".dat").toFile();
+            if (!legacyFile.exists()) {
+                continue;
+            }
+            try {
+                scanner.scan(legacyFile);
+                migrated = true;
+            } catch (IOException | RuntimeException e) {
+                Hivemind.LOGGER.error("Could not migrate legacy hive data from {}", legacyFile, e);
+            }
+        }
+        ledger.replaying = false;
+
+        if (migrated) {
+            Hivemind.LOGGER.info("Migrating legacy hive data into {}", DATA_NAME);
+        }
+        return migrated ? ledger : null;
+    }
+
+    /**
+     * Make sure the shard holding an owner's drones is loaded, and note that it was used.
+     * Waits for the I/O thread if no {@link #prefetchOwner} got the shard ready in time.
+     * A no-op for ledgers that aren't backed by shard files.
+     */
+    public void ensureOwnerLoaded(UUID ownerUUID) {
+        if (shards == null || replaying || ownerUUID == null) {
+            return;
+        }
+        HiveShard shard = shards[shardIndex(ownerUUID)];
+        shard.lastAccessMillis = System.currentTimeMillis();
+        if (!shard.loaded) {
+            loadShard(shard);
+        }
+    }
+
+    /**
+     * Start reading the shard of an owner on the I/O thread, so it is ready before the owner's
+     * drones need it, and run the action on the server thread once it is loaded. The action runs
+     * right away if the shard is loaded already, there is no owner, or the ledger isn't sharded.
+     *
+     * @param whenLoaded Run once the shard is loaded; may be null
+     */
+    public void prefetchOwner(UUID ownerUUID, Runnable whenLoaded) {
+        if (shards == null || ownerUUID == null) {
+            if (whenLoaded != null) {
+                whenLoaded.run();
+            }
+            return;
+        }
+        HiveShard shard = shards[shardIndex(ownerUUID)];
+        shard.lastAccessMillis = System.currentTimeMillis();
+        if (shard.loaded) {
+            if (whenLoaded != null) {
+                whenLoaded.run();
+            }
+            return;
+        }
+        if (whenLoaded != null) {
+            shard.whenLoaded.add(whenLoaded);
+        }
+        readShardAsync(shard);
+    }
+
+    // Wait for the read of the shard, starting it unless a prefetch did, and apply it
+    private void loadShard(HiveShard shard) {
+        long start = System.nanoTime();
+        applyShard(shard, readShardAsync(shard));
+        Hivemind.LOGGER.debug("Waited {} ms for hive shard {}", (System.nanoTime() - start) / 1_000_000, shard.index);
+    }
+
+    // Queue a read of the shard files behind any pending write to them; the result is applied
+    // on the server thread, or earlier by a load that waits for it
+    private CompletableFuture<HiveShard.Image> readShardAsync(HiveShard shard) {
+        if (shard.pendingRead != null) {
+            return shard.pendingRead;
+        }
+        CompletableFuture<HiveShard.Image> read = new CompletableFuture<>();
+        shard.pendingRead = read;
+        HiveIoExecutor.submit("load hive shard " + shard.index, () -> {
+            try {
+                read.complete(readShard(shard));
+            } finally {
+                if (!read.isDone()) {
+                    read.complete(new HiveShard.Image(new HiveLedger(), null, 0));
+                }
+            }
+            mainThread.execute(() -> applyShard(shard, read));
+        });
+        return read;
+    }
+
+    // Decode the shard snapshot and replay its journal on top, into a detached ledger; runs on the I/O thread
+    private static HiveShard.Image readShard(HiveShard shard) {
+        HiveLedger data = new HiveLedger();
+        data.replaying = true;
+        long snapshotSeq = 0;
+        if (Files.exists(shard.snapshotFile)) {
+            HiveNbtScanner scanner = new HiveNbtScanner(data.linkManager, data.codeManager, data.telemetryStore);
+            try {
+                scanner.scan(shard.snapshotFile.toFile());
+                snapshotSeq = scanner.getJournalSeq();
+            } catch (IOException | RuntimeException e) {
+                Hivemind.LOGGER.error("Could not load {}, starting from the journal only", shard.snapshotFile, e);
+            }
+        }
+
+        HiveJournal journal = null;
+        try {
+            journal = HiveJournal.open(shard.journalDirectory, snapshotSeq, data.replayInto());
+        } catch (IOException e) {
+            Hivemind.LOGGER.error("Could not open journal of hive shard {}, falling back to full saves", shard.index, e);
+        }
+        return new HiveShard.Image(data, journal, snapshotSeq);
+    }
+
+    // Hand the records of a finished read to the managers, unless the read is stale or was applied
+    // already, then run what waited for the shard. Without a server, results of the I/O thread are
+    // applied on it, so the lock keeps them from overlapping a load waiting on the caller's thread.
+    private void applyShard(HiveShard shard, CompletableFuture<HiveShard.Image> read) {
+        HiveShard.Image image = read.join();
+        List<Runnable> actions;
+        synchronized (shard) {
+            if (shard.pendingRead != read) {
+                return;
+            }
+            shard.pendingRead = null;
+
+            replaying = true;
+            try {
+                HiveLedger data = image.data();
+                for (Object2IntMap.Entry<UUID> entry : data.codeManager.getPlayerCounters().object2IntEntrySet()) {
+                    codeManager.restorePlayerCounter(entry.getKey(), entry.getIntValue());
+                }
+                for (UUID droneUUID : data.getKnownDrones()) {
+                    HiveRecord record = data.captureRecord(droneUUID);
+                    if (record != null && claim(shard, droneUUID)) {
+                        record.applyTo(linkManager, codeManager, telemetryStore);
+                    }
+                }
+            } finally {
+                replaying = false;
+            }
+
+            shard.snapshotSeq = image.snapshotSeq();
+            shard.journal = image.journal();
+            if (shard.journal != null && shard.journal.getEntriesSinceSnapshot() >= compactionThreshold) {
+                shard.compactionPending = true;
+                markDirty();
+            }
+            shard.loaded = true;
+            actions = new ArrayList<>(shard.whenLoaded);
+            shard.whenLoaded.clear();
+        }
+        Hivemind.LOGGER.debug("Loaded hive shard {} with {} drones", shard.index, shard.drones.size());
+        actions.forEach(Runnable::run);
+    }
+
+    // Take a drone read from a shard file, unless it is held by another shard or changed since
+    private boolean claim(HiveShard shard, UUID droneUUID) {
+        HiveShard current = droneShards.get(droneUUID);
+        if (current == null) {
+            if (isHeld(droneUUID)) {
+                return false;
+            }
+        } else if (current != shard) {
+            return false;
+        }
+        droneShards.put(droneUUID, shard);
+        shard.drones.add(droneUUID);
+        return true;
+    }
+
+    private boolean isHeld(UUID droneUUID) {
+        return linkManager.isDroneLinked(droneUUID)
+                || codeManager.getHiveCode(droneUUID) != null
+                || telemetryStore.hasDroneData(droneUUID);
+    }
+
+    // Journal visitor applying every entry to this ledger's managers
+    private HiveJournal.Visitor replayInto() {
+        return new HiveJournal.Visitor() {
+            @Override
+            public void put(HiveRecord record) {
+                record.applyTo(linkManager, codeManager, telemetryStore);
+            }
+
+            @Override
+            public void remove(UUID droneUUID) {
+                HiveRecord.removeFrom(droneUUID, linkManager, codeManager, telemetryStore);
+            }
+
+            @Override
+            public void counter(UUID ownerUUID, int nextNumber) {
+                codeManager.restorePlayerCounter(ownerUUID, nextNumber);
+            }
+        };
+    }
+
+    /**
+     * Drop every loaded shard that none of the given owners belongs to and that wasn't used
+     * for the given time. Shards waiting for their snapshot to be rewritten are kept until
+     * the next save, and shards with snapshot or journal writes queued until those end.
+     */
+    public void evictIdleShards(long idleMillis, Collection<UUID> activeOwners) {
+        if (shards == null || batchDepth > 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<HiveShard> inUse = new HashSet<>();
+        for (UUID ownerUUID : activeOwners) {
+            HiveShard shard = shards[shardIndex(ownerUUID)];
+            shard.lastAccessMillis = now;
+            inUse.add(shard);
+        }
+
+        int evicted = 0;
+        for (HiveShard shard : shards) {
+            if (shard.loaded && !shard.compactionPending && shard.writesInFlight == 0 && !inUse.contains(shard)
+                    && now - shard.lastAccessMillis >= idleMillis) {
+                unloadShard(shard);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            Hivemind.LOGGER.debug("Evicted {} idle hive shards", evicted);
+        }
+    }
+
+    private void unloadShard(HiveShard shard) {
+        replaying = true;
+        try {
+            for (UUID droneUUID : shard.drones) {
+                HiveRecord.removeFrom(droneUUID, linkManager, codeManager, telemetryStore);
+                droneShards.remove(droneUUID);
+            }
+            for (UUID ownerUUID : codeManager.getKnownOwners()) {
+                if (shardIndex(ownerUUID) == shard.index) {
+                    codeManager.forgetOwner(ownerUUID);
+                }
+            }
+        } finally {
+            replaying = false;
+        }
+        shard.drones.clear();
+        closeJournal(shard);
+        shard.loaded = false;
+    }
+
+    /**
+     * Queue closing the journals of the active ledger and forget it. Called when the server stops,
+     * before waiting for the I/O thread.
+     */
+    public static void closeOpenJournals() {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+
+    void close() {
+        telemetryStore.close();
+        if (shards == null) {
+            return;
+        }
+        for (HiveShard shard : shards) {
+            closeJournal(shard);
+            if (shard.pendingRead != null) {
+                // The journal of a read that will never be applied; the read is done by the time this runs
+                CompletableFuture<HiveShard.Image> read = shard.pendingRead;
+                shard.pendingRead = null;
+                HiveIoExecutor.submit("close journal of hive shard " + shard.index, () -> {
+                    HiveJournal journal = read.join().journal();
+                    if (journal != null) {
+                        journal.close();
+                    }
+                });
+            }
+        }
+    }
+
+    // Flushed and closed on the I/O thread, after the writes queued before
+    private static void closeJournal(HiveShard shard) {
+        if (shard.journal == null) {
+            return;
+        }
+        HiveJournal journal = shard.journal;
+        shard.journal = null;
+        HiveIoExecutor.submit("close journal of hive shard " + shard.index, journal::close);
+    }
+
+    public static HiveLedger createFromNbt(NbtCompound nbt) {
+        HiveMindLinkManager links = new HiveMindLinkManager();
+        HiveCodeManager codes = new HiveCodeManager();
+        DroneTelemetryStore telemetry = new DroneTelemetryStore();
+
+        // Load per-player counters
+        NbtCompound countersNbt = nbt.getCompound("PlayerCounters");
+        for (String key : countersNbt.getKeys()) {
+            try {
+                codes.restorePlayerCounter(UUID.fromString(key), countersNbt.getInt(key));
+            } catch (IllegalArgumentException e) {
+                Hivemind.LOGGER.warn("Invalid UUID in PlayerCounters: {}", key);
+            }
+        }
+
+        // Load drone records
+        NbtList records = nbt.getList("Drones", NbtElement.COMPOUND_TYPE);
+        for (int i = 0; i < records.size(); i++) {
+            HiveRecord.fromNbt(records.getCompound(i)).applyTo(links, codes, telemetry);
+        }
+
+        // Attach only after loading so the restore calls above don't dirty the ledger
+        return new HiveLedger(links, codes, telemetry);
+    }
+
+    /**
+     * Full snapshot of every drone currently held, in the unsharded format.
+     */
+    @Override
+    public NbtCompound writeNbt(NbtCompound nbt) {
+        return HiveSnapshot.capture(getKnownDrones(), codeManager.getPlayerCounters(),
+                linkManager, codeManager, telemetryStore, 0).toNbt(nbt);
+    }
+
+    /**
+     * Rewrite the snapshots of the shards whose journal grew past the threshold, then the index.
+     * Each shard is copied on the server thread and encoded and written on the I/O thread; its
+     * journal is rotated first so the segments covered by the snapshot can be deleted afterwards.
+     */
+    @Override
+    public void save(File file) {
+        if (!isDirty()) {
+            return;
+        }
+        if (shards == null) {
+            super.save(file);
+            return;
+        }
+
+        for (HiveShard shard : shards) {
+            if (shard.loaded && shard.compactionPending) {
+                compact(shard);
+            }
+        }
+        setDirty(false);
+
+        HiveIoExecutor.submit("save " + DATA_NAME, () -> {
+            try {
+                writeIndex(file);
+            } catch (IOException e) {
+                Hivemind.LOGGER.error("Could not save hive shard index, retrying on next save", e);
+                mainThread.execute(this::markDirty);
+            }
+        });
+    }
+
+    private void compact(HiveShard shard) {
+        HiveJournal journal = shard.journal;
+        byte[] entries = null;
+        long journalSeq = shard.snapshotSeq;
+        if (journal != null) {
+            entries = journal.takePending();
+            journal.markSnapshotted();
+            journalSeq = journal.getLastSeq();
+        }
+
+        HiveSnapshot snapshot = HiveSnapshot.capture(shard.drones, countersOf(shard),
+                linkManager, codeManager, telemetryStore, journalSeq);
+        shard.compactionPending = false;
+        shard.writesInFlight++;
+
+        byte[] pending = entries;
+        HiveIoExecutor.submit("save hive shard " + shard.index, () -> {
+            // Later journal writes are queued behind this task, so they land in the new segment
+            long firstKeptSegment = -1;
+            if (journal != null) {
+                try {
+                    journal.write(pending);
+                    firstKeptSegment = journal.nextSegment();
+                } catch (IOException e) {
+                    Hivemind.LOGGER.error("Could not rotate journal of hive shard {}, keeping all segments", shard.index, e);
+                }
+            }
+
+            try {
+                writeSnapshot(shard.snapshotFile.toFile(), snapshot);
+            } catch (IOException e) {
+                Hivemind.LOGGER.error("Could not save hive shard {}, retrying on next save", shard.index, e);
+                // Picked up by the next autosave; the journal segments are still on disk
+                mainThread.execute(() -> {
+                    shard.writesInFlight--;
+                    shard.compactionPending = true;
+                    markDirty();
+                });
+                return;
+            }
+
+            // Only deletes segments closed by the rotation; the shard can't unload while this runs
+            if (firstKeptSegment >= 0) {
+                journal.discardBefore(firstKeptSegment);
+            }
+            mainThread.execute(() -> {
+                shard.writesInFlight--;
+                shard.snapshotSeq = snapshot.journalSeq;
+            });
+        });
+    }
+
+    private static void writeSnapshot(File file, HiveSnapshot snapshot) throws IOException {
+        NbtCompound root = new NbtCompound();
+        root.put("data", snapshot.toNbt(new NbtCompound()));
+        NbtHelper.putDataVersion(root);
+        HiveIoExecutor.writeAtomically(file, temp -> NbtIo.writeCompressed(root, temp));
+    }
+
+    private void writeIndex(File file) throws IOException {
+        NbtCompound data = new NbtCompound();
+        data.putInt("ShardCount", shards.length);
+        NbtCompound root = new NbtCompound();
+        root.put("data", data);
+        NbtHelper.putDataVersion(root);
+        HiveIoExecutor.writeAtomically(file, temp -> NbtIo.writeCompressed(root, temp));
+    }
+
+    private Object2IntMap<UUID> countersOf(HiveShard shard) {
+        Object2IntOpenHashMap<UUID> counters = new Object2IntOpenHashMap<>();
+        for (Object2IntMap.Entry<UUID> entry : codeManager.getPlayerCounters().object2IntEntrySet()) {
+            if (shardIndex(entry.getKey()) == shard.index) {
+                counters.put(entry.getKey(), entry.getIntValue());
+            }
+        }
+        return counters;
+    }
+
+    private int shardIndex(UUID ownerUUID) {
+        return Math.floorMod(ownerUUID.hashCode(), shards.length);
+    }
+
+    private HiveRecord captureRecord(UUID droneUUID) {
+        return HiveRecord.capture(droneUUID, linkManager, codeManager, telemetryStore);
+    }
+
+    // Union of every drone UUID held by any of the managers
+    private Set<UUID> getKnownDrones() {
+        Set<UUID> drones = new LinkedHashSet<>(linkManager.getLinkedDrones());
+        drones.addAll(codeManager.getCodedDrones());
+        drones.addAll(telemetryStore.getTrackedDrones());
+        return drones;
+    }
+
+    /**
+     * Run several mutations as one commit: the ledger is marked dirty at most once,
+     * when the outermost batch finishes.
+     */
+    public void batch(Runnable mutations) {
+        batch(() -> {
+            mutations.run();
+            return null;
+        });
+    }
+
+    public <T> T batch(Supplier<T> mutations) {
+        batchDepth++;
+        try {
+            return mutations.get();
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0) {
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Called by the managers whenever the record of a drone changed.
+     */
+    public void onDroneChanged(UUID droneUUID) {
+        if (replaying) {
+            return;
+        }
+        pendingDrones.add(droneUUID);
+        if (batchDepth == 0) {
+            commit();
+        }
+    }
+
+    /**
+     * Called by the HiveCode manager when a player's drone counter moved.
+     */
+    public void onCounterChanged(UUID ownerUUID) {
+        if (replaying) {
+            return;
+        }
+        pendingCounters.add(ownerUUID);
+        if (batchDepth == 0) {
+            commit();
+        }
+    }
+
+    // Append the pending changes to the journals of their shards, or dirty the ledger if there are none
+    private void commit() {
+        if (pendingDrones.isEmpty() && pendingCounters.isEmpty()) {
+            return;
+        }
+        if (shards == null) {
+            pendingDrones.clear();
+            pendingCounters.clear();
+            markDirty();
+            return;
+        }
+
+        Set<HiveShard> touched = new LinkedHashSet<>();
+        try {
+            for (UUID ownerUUID : pendingCounters) {
+                HiveShard shard = shards[shardIndex(ownerUUID)];
+                touched.add(shard);
+                Object2IntMap<UUID> counters = codeManager.getPlayerCounters();
+                if (shard.journal != null && counters.containsKey(ownerUUID)) {
+                    shard.journal.appendCounter(ownerUUID, counters.getInt(ownerUUID));
+                }
+            }
+            for (UUID droneUUID : pendingDrones) {
+                HiveRecord record = captureRecord(droneUUID);
+                HiveShard previous = droneShards.get(droneUUID);
+                HiveShard target = record != null ? shards[shardIndex(record.ownerUUID)] : null;
+
+                // A drone that changed owner leaves its old shard
+                if (previous != null && previous != target) {
+                    touched.add(previous);
+                    previous.drones.remove(droneUUID);
+                    droneShards.remove(droneUUID);
+                    if (previous.journal != null) {
+                        previous.journal.appendRemove(droneUUID);
+                    }
+                }
+                if (target != null) {
+                    if (!target.loaded) {
+                        loadShard(target);
+                    }
+                    touched.add(target);
+                    target.drones.add(droneUUID);
+                    droneShards.put(droneUUID, target);
+                    if (target.journal != null) {
+                        target.journal.appendPut(record);
+                    }
+                }
+            }
+            for (HiveShard shard : touched) {
+                if (shard.journal != null) {
+                    writeJournal(shard);
+                }
+            }
+        } catch (IOException e) {
+            Hivemind.LOGGER.error("Failed to append to hive journal, scheduling a full save", e);
+            touched.forEach(shard -> shard.compactionPending = true);
+        } finally {
+            pendingDrones.clear();
+            pendingCounters.clear();
+        }
+
+        for (HiveShard shard : touched) {
+            if (shard.journal == null || shard.journal.getEntriesSinceSnapshot() >= compactionThreshold) {
+                shard.compactionPending = true;
+            }
+            if (shard.compactionPending) {
+                markDirty();
+            }
+        }
+    }
+
+    // Hand the shard's new journal entries to the I/O thread; a failed write schedules a full save
+    private void writeJournal(HiveShard shard) {
+        HiveJournal journal = shard.journal;
+        byte[] entries = journal.takePending();
+        if (entries.length == 0) {
+            return;
+        }
+        shard.writesInFlight++;
+        HiveIoExecutor.submit("append to hive shard " + shard.index, () -> {
+            try {
+                journal.write(entries);
+            } catch (IOException e) {
+                Hivemind.LOGGER.error("Failed to append to journal of hive shard {}, scheduling a full save",
+                        shard.index, e);
+                mainThread.execute(() -> {
+                    shard.writesInFlight--;
+                    shard.compactionPending = true;
+                    markDirty();
+                });
+                return;
+            }
+            mainThread.execute(() -> shard.writesInFlight--);
+        });
+    }
+
+    public HiveMindLinkManager getLinkManager() {
+        return linkManager;
+    }
+
+    public HiveCodeManager getCodeManager() {
+        return codeManager;
+    }
+
+    public DroneTelemetryStore getTelemetryStore() {
+        return telemetryStore;
+    }
+
+    public DroneTelemetryHistory getTelemetryHistory() {
+        return telemetryHistory;
+    }
+
+    public DroneTelemetrySampler getTelemetrySampler() {
+        return telemetrySampler;
+    }
+}
@@ -1,48 +1,23 @@
 package net.sanfonic.hivemind.data.HiveMindData;
 
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.MinecraftServer;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * Manages player-specific HiveMind data using NBT persistence
+ * Manages player-specific HiveMind data, held in a {@link HivePlayerData} attached to the
+ * player entity and saved with the player's own NBT. Reads are plain field accesses.
  * Works alongside HiveMindDataManager for drone-player relationships
  */
 public class HiveMindData {
-    // NBT Keys for player data
-    private static final String NBT_KEY_ACCESS = "HasHiveMindAccess";
-    private static final String NBT_KEY_HIVE_ID = "HiveId";
-    private static final String NBT_KEY_JOIN_TIME = "HiveMindJoinTime";
-
-    // Custom NBT root key for our mod data
-    private static final String NBT_ROOT = "hivemind";
-
-    /**
-     * Get or create HiveMind NBT compound for a player
-     * In Fabric, we need to manually manage the NBT Infrastructure
-     */
-    private static NbtCompound getOrCreateNbt(PlayerEntity player) {
-        // Get the main NBT compound (this works in Fabric)
-        NbtCompound playerNbt = player.writeNbt(new NbtCompound());
-
-        // Get or create our mod's sub-compound
-        if (!playerNbt.contains(NBT_ROOT)) {
-            playerNbt.put(NBT_ROOT, new NbtCompound());
-        }
-
-        return playerNbt.getCompound(NBT_ROOT);
-    }
 
     /**
-     * Save the NBT data back to the player
+     * The HiveMind data attached to a player
      */
-    private static void saveNbt(PlayerEntity player, NbtCompound modNbt) {
-        NbtCompound playerNbt = player.writeNbt(new NbtCompound());
-        playerNbt.put(NBT_ROOT, modNbt);
-        player.readNbt(playerNbt);
+    private static HivePlayerData data(PlayerEntity player) {
+        return ((HivePlayerDataHolder) player).hivemind$getHiveData();
     }
 
     // ===== ACCESS MANAGEMENT =====
@@ -53,8 +28,7 @@ public class HiveMindData {
      * @return true if player has joined the HiveMind
      */
     public static boolean hasAccess(PlayerEntity player) {
-        NbtCompound nbt = getOrCreateNbt(player);
-        return nbt.getBoolean(NBT_KEY_ACCESS);
+        return data(player).hasAccess;
     }
 
     /**
@@ -63,17 +37,17 @@ public class HiveMindData {
      * @param value true to grant access, false to revoke
      */
     public static void setHasAccess(PlayerEntity player, boolean value) {
-        NbtCompound nbt = getOrCreateNbt(player);
-        nbt.putBoolean(NBT_KEY_ACCESS, value);
+        HivePlayerData data = data(player);
+        data.hasAccess = value;
 
         // Record join time when granting access
-        if (value && !nbt.contains(NBT_KEY_JOIN_TIME)) {
-            nbt.putLong(NBT_KEY_JOIN_TIME, System.currentTimeMillis());
+        if (value && data.joinTime == 0) {
+            data.joinTime = System.currentTimeMillis();
         }
 
         // Auto-assign a Hive ID if player doesn't have one
-        if (value && !nbt.contains(NBT_KEY_HIVE_ID)) {
-            setHiveId(player, player.getUuid()); // Use player UUID as default Hive ID
+        if (value && data.hiveId == null) {
+            data.hiveId = player.getUuid(); // Use player UUID as default Hive ID
         }
     }
 
@@ -85,11 +59,7 @@ public class HiveMindData {
      * @return UUID of the player's hive, or null if not set
      */
     public static UUID getHiveId(PlayerEntity player) {
-        NbtCompound nbt = getOrCreateNbt(player);
-        if (nbt.contains(NBT_KEY_HIVE_ID)) {
-            return nbt.getUuid(NBT_KEY_HIVE_ID);
-        }
-        return null;
+        return data(player).hiveId;
     }
 
     /**
@@ -98,9 +68,7 @@ public class HiveMindData {
      * @param hiveId UUID of the hive to assign
      */
     public static void setHiveId(PlayerEntity player, UUID hiveId) {
-        NbtCompound nbt = getOrCreateNbt(player);
-        nbt.putUuid(NBT_KEY_HIVE_ID, hiveId);
-        saveNbt(player, nbt);
+        data(player).hiveId = hiveId;
     }
 
     /**
@@ -110,7 +78,7 @@ public class HiveMindData {
      * @return true if player belongs to this hive
      */
     public static boolean isInHive(PlayerEntity player, UUID hiveId) {
-        UUID playerHiveId = getHiveId(player);
+        UUID playerHiveId = data(player).hiveId;
         return playerHiveId != null && playerHiveId.equals(hiveId);
     }
 
@@ -122,8 +90,7 @@ public class HiveMindData {
      * @return Timestamp in milliseconds, or 0 if never joined
      */
     public static long getJoinTime(PlayerEntity player) {
-        NbtCompound nbt = getOrCreateNbt(player);
-        return nbt.getLong(NBT_KEY_JOIN_TIME);
+        return data(player).joinTime;
     }
 
     /**
@@ -159,7 +126,10 @@ public class HiveMindData {
      * @return Number of drones owned
      */
     public static int getDroneCount(ServerPlayerEntity player) {
-        return getPlayerDrones(player).size();
+        MinecraftServer server = player.getServer();
+        if (server == null) return 0;
+
+        return HiveMindLinkManager.getInstance(server).getOwnerDroneCount(player.getUuid());
     }
 
     /**
@@ -189,9 +159,16 @@ public class HiveMindData {
      * @param player The player to clear
      */
     public static void clearPlayerData(PlayerEntity player) {
-        NbtCompound playerNbt = player.writeNbt(new NbtCompound());
-        playerNbt.remove(NBT_ROOT);
-        player.readNbt(playerNbt);
+        data(player).clear();
+    }
+
+    /**
+     * Carry the HiveMind data over to the new player entity after respawn or returning from the End
+     * @param oldPlayer The entity being replaced
+     * @param newPlayer The entity replacing it
+     */
+    public static void copyPlayerData(PlayerEntity oldPlayer, PlayerEntity newPlayer) {
+        data(newPlayer).copyFrom(data(oldPlayer));
     }
 
     /**
@@ -205,7 +182,7 @@ public class HiveMindData {
             return "Not a HiveMind member";
         }
 
-        UUID hiveId = getHiveId(player);
+        UUID hiveId = data(player).hiveId;
         long duration = getMembershipDuration(player);
         long durationSeconds = duration / 1000;
 
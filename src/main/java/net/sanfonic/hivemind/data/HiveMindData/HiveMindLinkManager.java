@@ -4,33 +4,60 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.world.PersistentState;
-import net.minecraft.world.PersistentStateManager;
-import net.minecraft.world.World;
+import net.sanfonic.hivemind.data.collection.UuidMap;
+import net.sanfonic.hivemind.data.collection.UuidSet;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
- * Manages drone <-> owner link mappings and persists them separately from telemetry.
+ * Manages drone <-> owner link mappings.
+ * Persisted as part of the {@link HiveLedger}; the standalone NBT format is kept for migration.
+ * Only holds the drones of loaded owner shards; lookups by drone UUID alone don't load anything.
  */
 public class HiveMindLinkManager extends PersistentState {
-    private static final String DATA_NAME = "hivemind_links";
+
+    // One owner's drones; every link of the owner shares its owner UUID instance
+    private static final class Fleet {
+        final UUID owner;
+        final UuidSet drones = new UuidSet();
+
+        Fleet(UUID owner) {
+            this.owner = owner;
+        }
+    }
 
     // droneUUID -> ownerUUID
-    private final Map<UUID, UUID> droneOwnerMap = new HashMap<>();
-    // ownerUUID -> List<droneUUID>
-    private final Map<UUID, List<UUID>> ownerDroneMap = new HashMap<>();
+    private final UuidMap<UUID> droneOwnerMap = new UuidMap<>();
+    // ownerUUID -> droneUUIDs
+    private final UuidMap<Fleet> ownerDroneMap = new UuidMap<>();
+
+    // Ledger that persists this manager; null when used standalone
+    private HiveLedger ledger;
 
     public static HiveMindLinkManager getInstance(MinecraftServer server) {
-        ServerWorld overworld = server.getWorld(World.OVERWORLD);
-        PersistentStateManager persistentStateManager = overworld.getPersistentStateManager();
+        return HiveLedger.getInstance(server).getLinkManager();
+    }
 
-        return persistentStateManager.getOrCreate(
-                HiveMindLinkManager::createFromNbt,
-                HiveMindLinkManager::new,
-                DATA_NAME
-        );
+    void attachLedger(HiveLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    // Route change notifications to the ledger when attached
+    private void onDroneChanged(UUID droneUUID) {
+        if (ledger != null) {
+            ledger.onDroneChanged(droneUUID);
+        } else {
+            markDirty();
+        }
+    }
+
+    // Make sure the owner's shard is loaded before reading or changing their drones
+    private void requireOwner(UUID ownerUUID) {
+        if (ledger != null) {
+            ledger.ensureOwnerLoaded(ownerUUID);
+        }
     }
 
     public static HiveMindLinkManager createFromNbt(NbtCompound nbt) {
@@ -42,8 +69,7 @@ public class HiveMindLinkManager extends PersistentState {
             NbtCompound mapping = mappingList.getCompound(i);
             UUID droneUUID = mapping.getUuid("DroneUUID");
             UUID ownerUUID = mapping.getUuid("OwnerUUID");
-            manager.droneOwnerMap.put(droneUUID, ownerUUID);
-            manager.ownerDroneMap.computeIfAbsent(ownerUUID, k -> new ArrayList<>()).add(droneUUID);
+            manager.putLink(droneUUID, ownerUUID);
         }
 
         return manager;
@@ -52,58 +78,99 @@ public class HiveMindLinkManager extends PersistentState {
     @Override
     public NbtCompound writeNbt(NbtCompound nbt) {
         NbtList mappingList = new NbtList();
-        for (Map.Entry<UUID, UUID> entry : droneOwnerMap.entrySet()) {
+        droneOwnerMap.forEach((droneUUID, ownerUUID) -> {
             NbtCompound mapping = new NbtCompound();
-            mapping.putUuid("DroneUUID", entry.getKey());
-            mapping.putUuid("OwnerUUID", entry.getValue());
+            mapping.putUuid("DroneUUID", droneUUID);
+            mapping.putUuid("OwnerUUID", ownerUUID);
             mappingList.add(mapping);
-        }
+        });
         nbt.put("LinkMappings", mappingList);
         return nbt;
     }
 
+    // Record a link in both maps, moving the drone out of a previous owner's fleet
+    private void putLink(UUID droneUUID, UUID ownerUUID) {
+        Fleet fleet = ownerDroneMap.get(ownerUUID);
+        if (fleet == null) {
+            fleet = new Fleet(ownerUUID);
+            ownerDroneMap.put(ownerUUID, fleet);
+        }
+        UUID previousOwner = droneOwnerMap.put(droneUUID, fleet.owner);
+        if (previousOwner != null && !previousOwner.equals(ownerUUID)) {
+            removeFromFleet(droneUUID, previousOwner);
+        }
+        fleet.drones.add(droneUUID);
+    }
+
+    private void removeFromFleet(UUID droneUUID, UUID ownerUUID) {
+        Fleet fleet = ownerDroneMap.get(ownerUUID);
+        if (fleet != null) {
+            fleet.drones.remove(droneUUID);
+            if (fleet.drones.isEmpty()) {
+                ownerDroneMap.remove(ownerUUID);
+            }
+        }
+    }
+
     // Public APIs
     public void linkDroneToOwner(UUID droneUUID, UUID ownerUUID) {
-        droneOwnerMap.put(droneUUID, ownerUUID);
-        ownerDroneMap.computeIfAbsent(ownerUUID, k -> new ArrayList<>()).add(droneUUID);
-        markDirty();
+        requireOwner(ownerUUID);
+        putLink(droneUUID, ownerUUID);
+        onDroneChanged(droneUUID);
     }
 
     public void unlinkDrone(UUID droneUUID) {
         UUID ownerUUID = droneOwnerMap.remove(droneUUID);
         if (ownerUUID != null) {
-            List<UUID> ownerDrones = ownerDroneMap.get(ownerUUID);
-            if (ownerDrones != null) {
-                ownerDrones.remove(droneUUID);
-                if (ownerDrones.isEmpty()) {
-                    ownerDroneMap.remove(ownerUUID);
-                }
-            }
+            removeFromFleet(droneUUID, ownerUUID);
         }
-        markDirty();
+        onDroneChanged(droneUUID);
     }
 
     public UUID getDroneOwner(UUID droneUUID) {
         return droneOwnerMap.get(droneUUID);
     }
 
+    /**
+     * Snapshot of an owner's drones, in no particular order
+     */
     public List<UUID> getOwnerDrones(UUID ownerUUID) {
-        return ownerDroneMap.getOrDefault(ownerUUID, Collections.emptyList());
+        requireOwner(ownerUUID);
+        Fleet fleet = ownerDroneMap.get(ownerUUID);
+        return fleet != null ? fleet.drones.toList() : Collections.emptyList();
+    }
+
+    public int getOwnerDroneCount(UUID ownerUUID) {
+        requireOwner(ownerUUID);
+        Fleet fleet = ownerDroneMap.get(ownerUUID);
+        return fleet != null ? fleet.drones.size() : 0;
     }
 
     public boolean isDroneLinked(UUID droneUUID) {
         return droneOwnerMap.containsKey(droneUUID);
     }
 
-    public void cleanupNonExistentDrones(List<UUID> existingDroneUUIDs) {
-        droneOwnerMap.keySet().removeIf(droneUUID -> !existingDroneUUIDs.contains(droneUUID));
+    /**
+     * Snapshot of every linked drone
+     */
+    public Set<UUID> getLinkedDrones() {
+        return Collections.unmodifiableSet(droneOwnerMap.keySet());
+    }
 
-        // Clean up owner lists
-        for (List<UUID> droneList : ownerDroneMap.values()) {
-            droneList.removeIf(droneUUID -> !existingDroneUUIDs.contains(droneUUID));
-        }
-        ownerDroneMap.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+    public void cleanupNonExistentDrones(List<UUID> existingDroneUUIDs) {
+        cleanupNonExistentDrones(new HashSet<>(existingDroneUUIDs)::contains);
+    }
 
-        markDirty();
+    /**
+     * Unlink every drone the predicate doesn't report as existing
+     */
+    public void cleanupNonExistentDrones(Predicate<UUID> exists) {
+        List<UUID> stale = new ArrayList<>();
+        droneOwnerMap.forEachKey(droneUUID -> {
+            if (!exists.test(droneUUID)) {
+                stale.add(droneUUID);
+            }
+        });
+        stale.forEach(this::unlinkDrone);
     }
 }
\ No newline at end of file
@@ -1,103 +1,167 @@
 package net.sanfonic.hivemind.data.HiveMindData;
 
 import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.entity.Entity;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.sanfonic.hivemind.Hivemind;
-import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+import net.sanfonic.hivemind.config.ModConfig;
+import net.sanfonic.hivemind.control.DroneRecallManager;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetrySampler;
+import net.sanfonic.hivemind.data.HiveIoExecutor;
+import net.sanfonic.hivemind.data.HiveTickScheduler;
+import net.sanfonic.hivemind.entity.DroneAiLod;
+import net.sanfonic.hivemind.entity.DroneBatchTicker;
 import net.sanfonic.hivemind.entity.DroneEntity;
+import net.sanfonic.hivemind.entity.DroneRegistry;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 public class HiveMindServerEvents {
+    // Check for idle hive shards once a minute
+    private static final int SHARD_EVICTION_INTERVAL = 1200;
+
     public static void register() {
+        // Track drones loaded from the start, so the cleanup scan never drops a live one
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> DroneReconciler.prepare());
+
         // Register server start event
         ServerLifecycleEvents.SERVER_STARTED.register(HiveMindServerEvents::onServerStarted);
 
-        // Register world load event
-        ServerWorldEvents.LOAD.register(HiveMindServerEvents::onWorldLoad);
+        // Register server stop event (after the final save)
+        ServerLifecycleEvents.SERVER_STOPPED.register(HiveMindServerEvents::onServerStopped);
 
         // Register entity load event (when entities are loaded from chunks)
         ServerEntityWorldChangeEvents.AFTER_ENTITY_CHANGE_WORLD.register(HiveMindServerEvents::onEntityChangeWorld);
+
+        // Keep the drone registry and the telemetry sampler's list of loaded drones current,
+        // queue loaded drones for restoring, finish pending recalls
+        ServerEntityEvents.ENTITY_LOAD.register(HiveMindServerEvents::onEntityLoad);
+        ServerEntityEvents.ENTITY_UNLOAD.register(HiveMindServerEvents::onEntityUnload);
+
+        // Read a player's hive shard in the background and wake their drones when they join; let the
+        // drones sleep again when they leave
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> onPlayerJoin(server, handler.player));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> onPlayerLeave(server, handler.player));
+
+        // Run the batched drone pass of each world once its entities have ticked
+        ServerTickEvents.END_WORLD_TICK.register(DroneBatchTicker::tick);
+
+        // Publish drone AI tier and batch counts, run scheduled hive work, sample drone telemetry, unload the
+        // hive shards of owners who have been away for a while, drop old drone tracks
+        ServerTickEvents.END_SERVER_TICK.register(HiveMindServerEvents::onServerTick);
     }
 
     private static void onServerStarted(MinecraftServer server) {
         // Server started, data manager is now available
         Hivemind.LOGGER.info("Server started, data manager initialized");
+        // Clean up records of deleted drones once the saved entities have been scanned
+        DroneReconciler.start(server);
     }
 
-    private static void onWorldLoad(MinecraftServer server, ServerWorld world) {
-        Hivemind.LOGGER.debug("World loaded: {}", world.getRegistryKey().getValue());
-        // Restore drone connections for this world
-        restoreDroneConnections(server, world);
+    private static void onServerStopped(MinecraftServer server) {
+        DroneReconciler.stop();
+        HiveTickScheduler.clear();
+        DroneRegistry.clear();
+        DroneBatchTicker.clear();
+        // Queue closing the hive journals, then wait for them and any pending background saves
+        HiveLedger.closeOpenJournals();
+        HiveIoExecutor.flush();
     }
 
-    private static void onEntityChangeWorld(Entity originalEntity, Entity newEntity,
-                                            ServerWorld origin, ServerWorld destination) {
-        // Handle drone dimension changes
-        if (newEntity instanceof DroneEntity drone) {
-            Hivemind.LOGGER.debug("Drone changing worlds, restoring connection");
-            drone.restoreHiveMindConnection();
-        }
+    private static void onPlayerJoin(MinecraftServer server, ServerPlayerEntity player) {
+        HiveLedger.getInstance(server).prefetchOwner(player.getUuid(), null);
+        DroneRegistry.getOwnerDrones(server, player.getUuid()).forEach(DroneEntity::wake);
     }
 
-    private static void restoreDroneConnections(MinecraftServer server, ServerWorld world) {
-        Hivemind.LOGGER.debug("Restoring drone connections");
-
-        // Find all drone entities in the world and restore their connections
-        List<DroneEntity> drones = new ArrayList<>();
+    private static void onPlayerLeave(MinecraftServer server, ServerPlayerEntity player) {
+        UUID playerUUID = player.getUuid();
+        // The player is still listed while this event runs
+        server.execute(() -> DroneRegistry.getOwnerDrones(server, playerUUID).forEach(DroneEntity::updateDormancy));
+    }
 
-        for (Entity entity : world.iterateEntities()) {
-            if (entity instanceof DroneEntity drone) {
-                drones.add(drone);
-            }
+    private static void onEntityLoad(Entity entity, ServerWorld world) {
+        if (entity instanceof DroneEntity drone) {
+            DroneRegistry.add(drone);
+            // A chunk batch can load hundreds of drones at once; reconnect them over several ticks
+            scheduleRestore(world.getServer(), drone);
+            HiveLedger.getInstance(world.getServer()).getTelemetrySampler().add(drone);
+            DroneReconciler.onDroneLoaded(drone.getUuid());
+            DroneRecallManager.onDroneLoaded(drone, world);
         }
+    }
 
-        Hivemind.LOGGER.debug("Found {} drones to restore", drones.size());
-
-        // Restore connections for all drones
-        for (DroneEntity drone : drones) {
-            Hivemind.LOGGER.debug("Restoring drone: {}", drone.getUuid());
-            drone.restoreHiveMindConnection();
-
-            // Debug: Check if restoration worked
-            if (drone.hasHiveMindOwner()) {
-                String hiveCode = drone.getHiveCode();
-                Hivemind.LOGGER.debug("Drone restored with HiveCode: {}", hiveCode);
-            } else {
-                Hivemind.LOGGER.debug("Drone restoration found no owner data");
+    private static void onEntityUnload(Entity entity, ServerWorld world) {
+        if (entity instanceof DroneEntity drone) {
+            DroneRegistry.remove(drone);
+            HiveLedger ledger = HiveLedger.getInstance(world.getServer());
+            DroneTelemetrySampler sampler = ledger.getTelemetrySampler();
+            if (sampler.remove(drone)) {
+                // Record the chunk the drone stays in, so it can be found while unloaded
+                sampler.sample(ledger.getTelemetryStore(), drone);
             }
         }
+    }
 
-        // Clean up data for non-existent drones
-        if (!drones.isEmpty()) {
-            HiveMindLinkManager linkManager = HiveMindLinkManager.getInstance(server);
-            HiveCodeManager codeManager = HiveCodeManager.getInstance(server);
-            DroneTelemetryStore telemetry = DroneTelemetryStore.getInstance(server);
+    private static void onServerTick(MinecraftServer server) {
+        DroneAiLod.endTick();
+        DroneBatchTicker.endTick();
+        HiveLedger ledger = HiveLedger.getInstance(server);
+        long budgetNanos = (long) (ModConfig.getInstance().hiveTickBudgetMillis * 1_000_000);
+        // One ledger commit for the scheduled work that fits this tick
+        ledger.batch(() -> HiveTickScheduler.tick(budgetNanos));
 
-            List<UUID> existingDroneUUIDs = new ArrayList<>();
+        DroneTelemetrySampler sampler = ledger.getTelemetrySampler();
+        // One ledger commit for the drones sampled this tick
+        ledger.batch(() -> sampler.tick(ledger.getTelemetryStore()));
 
-            // Collect all existing drone UUIDs from all worlds
-            for (ServerWorld serverWorld : server.getWorlds()) {
-                for (Entity entity : serverWorld.iterateEntities()) {
-                    if (entity instanceof DroneEntity) {
-                        existingDroneUUIDs.add(entity.getUuid());
-                    }
-                }
+        if (server.getTicks() % SHARD_EVICTION_INTERVAL != 0) {
+            return;
+        }
+        Set<UUID> activeOwners = new HashSet<>();
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            activeOwners.add(player.getUuid());
+        }
+        // Drones loaded while their owner is away (spawn or force-loaded chunks) still need their records
+        DroneRegistry.forEach(drone -> {
+            if (drone.getHiveMindOwnerUuid() != null) {
+                activeOwners.add(drone.getHiveMindOwnerUuid());
             }
+        });
+        long idleMillis = ModConfig.getInstance().shardIdleMinutes * 60_000L;
+        ledger.evictIdleShards(idleMillis, activeOwners);
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.LOW, "prune drone tracks",
+                () -> ledger.getTelemetryHistory().prune(server.getOverworld().getTime()));
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.LOW, "prune recalls",
+                () -> DroneRecallManager.pruneExpired(server));
+    }
 
-            Hivemind.LOGGER.debug("Cleaning up data for {} existing drones", existingDroneUUIDs.size());
-            if (linkManager != null) linkManager.cleanupNonExistentDrones(existingDroneUUIDs);
-            if (telemetry != null) telemetry.cleanupNonExistentDrones(existingDroneUUIDs);
-            codeManager.cleanupInvalidCodes(existingDroneUUIDs);
+    private static void onEntityChangeWorld(Entity originalEntity, Entity newEntity,
+                                            ServerWorld origin, ServerWorld destination) {
+        // Handle drone dimension changes
+        if (newEntity instanceof DroneEntity drone) {
+            DroneRegistry.add(drone);
+            Hivemind.LOGGER.debug("Drone changing worlds, restoring connection");
+            scheduleRestore(destination.getServer(), drone);
         }
+    }
 
-        Hivemind.LOGGER.debug("Restored connections for {} drones in world: {}",
-                drones.size(), world.getRegistryKey().getValue());
+    // Reconnect a drone to its hive and settle its dormancy in a later tick, unless it is gone by then.
+    // The owner's hive shard is read in the background first, so the restore doesn't wait on the disk.
+    private static void scheduleRestore(MinecraftServer server, DroneEntity drone) {
+        HiveLedger.getInstance(server).prefetchOwner(drone.getHiveMindOwnerUuid(), () ->
+                HiveTickScheduler.submit(HiveTickScheduler.Priority.HIGH, "restore drone", () -> {
+                    if (!drone.isRemoved()) {
+                        drone.restoreHiveMindConnection();
+                        drone.updateDormancy();
+                    }
+                }));
     }
 }
@@ -0,0 +1,311 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtType;
+import net.minecraft.nbt.scanner.NbtScanner;
+import net.sanfonic.hivemind.Hivemind;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a saved hive file straight into the managers without building an NbtCompound tree.
+ * Understands the ledger format ("Drones") as well as the legacy per-manager files
+ * ("LinkMappings", "CodeMappings", "DroneData"); everything else is skipped unread.
+ */
+final class HiveNbtScanner implements NbtScanner {
+
+    private enum Context {ROOT, DATA, COUNTERS, RECORDS, RECORD}
+
+    private enum RecordKind {DRONES, LINK_MAPPINGS, CODE_MAPPINGS, DRONE_DATA}
+
+    private final HiveMindLinkManager links;
+    private final HiveCodeManager codes;
+    private final DroneTelemetryStore telemetry;
+
+    private final Deque<Context> contexts = new ArrayDeque<>();
+    private String key;
+    private RecordKind kind;
+    private long journalSeq;
+    private int recordCount;
+    private int skippedRecords;
+
+    // Fields of the record currently being read
+    private UUID droneUUID;
+    private UUID ownerUUID;
+    private boolean linked;
+    private String hiveCode;
+    private boolean hasTelemetry;
+    private double x, y, z;
+    private String dimensionKey;
+    private double health;
+    private double maxHealth;
+
+    HiveNbtScanner(HiveMindLinkManager links, HiveCodeManager codes, DroneTelemetryStore telemetry) {
+        this.links = links;
+        this.codes = codes;
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Read one gzip-compressed saved data file into the managers.
+     */
+    void scan(File file) throws IOException {
+        contexts.clear();
+        journalSeq = 0;
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            NbtIo.scan(input, this);
+        }
+        if (skippedRecords > 0) {
+            Hivemind.LOGGER.warn("Skipped {} incomplete records in {}", skippedRecords, file.getName());
+            skippedRecords = 0;
+        }
+    }
+
+    long getJournalSeq() {
+        return journalSeq;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public Result start(NbtType<?> rootType) {
+        if (rootType != NbtCompound.TYPE) {
+            return Result.HALT;
+        }
+        contexts.push(Context.ROOT);
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public NestedResult visitSubNbtType(NbtType<?> type) {
+        return NestedResult.ENTER;
+    }
+
+    @Override
+    public NestedResult startSubNbt(NbtType<?> type, String key) {
+        this.key = key;
+        boolean nested = type == NbtCompound.TYPE || type == NbtList.TYPE;
+        Context context = contexts.peek();
+        if (context == null) {
+            return NestedResult.SKIP;
+        }
+
+        switch (context) {
+            case ROOT -> {
+                if (type == NbtCompound.TYPE && key.equals("data")) {
+                    contexts.push(Context.DATA);
+                    return NestedResult.ENTER;
+                }
+            }
+            case DATA -> {
+                if (type == NbtCompound.TYPE && key.equals("PlayerCounters")) {
+                    contexts.push(Context.COUNTERS);
+                    return NestedResult.ENTER;
+                }
+                RecordKind recordKind = recordKind(key);
+                if (type == NbtList.TYPE && recordKind != null) {
+                    kind = recordKind;
+                    contexts.push(Context.RECORDS);
+                    return NestedResult.ENTER;
+                }
+                if (!nested && key.equals("JournalSeq")) {
+                    return NestedResult.ENTER;
+                }
+            }
+            case COUNTERS, RECORD -> {
+                if (!nested) {
+                    return NestedResult.ENTER;
+                }
+            }
+            default -> {
+            }
+        }
+        return NestedResult.SKIP;
+    }
+
+    @Override
+    public NestedResult startListItem(NbtType<?> type, int index) {
+        if (contexts.peek() != Context.RECORDS || type != NbtCompound.TYPE) {
+            return NestedResult.SKIP;
+        }
+        beginRecord();
+        contexts.push(Context.RECORD);
+        return NestedResult.ENTER;
+    }
+
+    @Override
+    public Result visitListMeta(NbtType<?> entryType, int length) {
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result endNested() {
+        Context context = contexts.pop();
+        if (context == Context.RECORD) {
+            finishRecord();
+        }
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitInt(int value) {
+        if (contexts.peek() == Context.COUNTERS) {
+            try {
+                codes.restorePlayerCounter(UUID.fromString(key), value);
+            } catch (IllegalArgumentException e) {
+                Hivemind.LOGGER.warn("Invalid UUID in PlayerCounters: {}", key);
+            }
+        }
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitLong(long value) {
+        if (contexts.peek() == Context.DATA && key.equals("JournalSeq")) {
+            journalSeq = value;
+        }
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitIntArray(int[] value) {
+        if (contexts.peek() == Context.RECORD && value.length == 4) {
+            UUID uuid = new UUID((long) value[0] << 32 | value[1] & 0xFFFFFFFFL,
+                    (long) value[2] << 32 | value[3] & 0xFFFFFFFFL);
+            if (key.equals("DroneUUID")) {
+                droneUUID = uuid;
+            } else if (key.equals("OwnerUUID")) {
+                ownerUUID = uuid;
+            }
+        }
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitByte(byte value) {
+        if (contexts.peek() == Context.RECORD && key.equals("Linked")) {
+            linked = value != 0;
+        }
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitString(String value) {
+        if (contexts.peek() == Context.RECORD) {
+            if (key.equals("HiveCode")) {
+                hiveCode = value;
+            } else if (key.equals("Dimension")) {
+                dimensionKey = value;
+                hasTelemetry = true;
+            }
+        }
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitDouble(double value) {
+        if (contexts.peek() == Context.RECORD) {
+            switch (key) {
+                case "X" -> x = value;
+                case "Y" -> y = value;
+                case "Z" -> z = value;
+                case "Health" -> health = value;
+                case "MaxHealth" -> maxHealth = value;
+                default -> {
+                }
+            }
+        }
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitEnd() {
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitShort(short value) {
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitFloat(float value) {
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitByteArray(byte[] value) {
+        return Result.CONTINUE;
+    }
+
+    @Override
+    public Result visitLongArray(long[] value) {
+        return Result.CONTINUE;
+    }
+
+    private static RecordKind recordKind(String key) {
+        return switch (key) {
+            case "Drones" -> RecordKind.DRONES;
+            case "LinkMappings" -> RecordKind.LINK_MAPPINGS;
+            case "CodeMappings" -> RecordKind.CODE_MAPPINGS;
+            case "DroneData" -> RecordKind.DRONE_DATA;
+            default -> null;
+        };
+    }
+
+    private void beginRecord() {
+        droneUUID = null;
+        ownerUUID = null;
+        linked = false;
+        hiveCode = null;
+        hasTelemetry = false;
+        x = y = z = 0;
+        dimensionKey = "";
+        health = 0;
+        maxHealth = 0;
+    }
+
+    private void finishRecord() {
+        if (droneUUID == null || ownerUUID == null) {
+            skippedRecords++;
+            return;
+        }
+
+        switch (kind) {
+            case DRONES -> {
+                if (linked) {
+                    links.linkDroneToOwner(droneUUID, ownerUUID);
+                }
+                if (hiveCode != null) {
+                    codes.restoreHiveCode(droneUUID, ownerUUID, hiveCode);
+                }
+                if (hasTelemetry) {
+                    telemetry.updateDroneData(droneUUID, ownerUUID, x, y, z, dimensionKey, health, maxHealth);
+                }
+            }
+            case LINK_MAPPINGS -> links.linkDroneToOwner(droneUUID, ownerUUID);
+            case CODE_MAPPINGS -> {
+                if (hiveCode != null) {
+                    codes.restoreHiveCode(droneUUID, ownerUUID, hiveCode);
+                }
+            }
+            case DRONE_DATA -> telemetry.updateDroneData(droneUUID, ownerUUID, x, y, z,
+                    dimensionKey, health, maxHealth);
+        }
+        recordCount++;
+    }
+}
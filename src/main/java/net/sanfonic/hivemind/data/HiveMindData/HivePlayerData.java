@@ -0,0 +1,48 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+
+import java.util.UUID;
+
+/**
+ * HiveMind fields attached to every player entity and saved with the player's own NBT.
+ * Reached through {@link HivePlayerDataHolder}; see {@link HiveMindData} for the public API.
+ */
+public final class HivePlayerData {
+    // NBT Keys for player data
+    private static final String NBT_KEY_ACCESS = "HasHiveMindAccess";
+    private static final String NBT_KEY_HIVE_ID = "HiveId";
+    private static final String NBT_KEY_JOIN_TIME = "HiveMindJoinTime";
+
+    boolean hasAccess = false;
+    UUID hiveId = null;
+    long joinTime = 0;
+
+    public void writeNbt(NbtCompound nbt) {
+        nbt.putBoolean(NBT_KEY_ACCESS, hasAccess);
+        if (hiveId != null) {
+            nbt.putUuid(NBT_KEY_HIVE_ID, hiveId);
+        }
+        if (joinTime != 0) {
+            nbt.putLong(NBT_KEY_JOIN_TIME, joinTime);
+        }
+    }
+
+    public void readNbt(NbtCompound nbt) {
+        hasAccess = nbt.getBoolean(NBT_KEY_ACCESS);
+        hiveId = nbt.containsUuid(NBT_KEY_HIVE_ID) ? nbt.getUuid(NBT_KEY_HIVE_ID) : null;
+        joinTime = nbt.getLong(NBT_KEY_JOIN_TIME);
+    }
+
+    public void copyFrom(HivePlayerData other) {
+        hasAccess = other.hasAccess;
+        hiveId = other.hiveId;
+        joinTime = other.joinTime;
+    }
+
+    void clear() {
+        hasAccess = false;
+        hiveId = null;
+        joinTime = 0;
+    }
+}
@@ -0,0 +1,8 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+/**
+ * Implemented on PlayerEntity by a mixin; gives access to the attached {@link HivePlayerData}.
+ */
+public interface HivePlayerDataHolder {
+    HivePlayerData hivemind$getHiveData();
+}
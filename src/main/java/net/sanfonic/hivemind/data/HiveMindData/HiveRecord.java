@@ -0,0 +1,177 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Immutable copy of everything the ledger stores about one drone.
+ * Used by the binary journal and when reading snapshot records.
+ */
+final class HiveRecord {
+    private static final int FLAG_LINKED = 1;
+    private static final int FLAG_CODE = 2;
+    private static final int FLAG_TELEMETRY = 4;
+
+    final UUID droneUUID;
+    final UUID ownerUUID;
+    final boolean linked;
+    final String hiveCode; // null when no code is assigned
+    final boolean hasTelemetry;
+    final double x, y, z;
+    final String dimensionKey;
+    final double health;
+    final double maxHealth;
+
+    HiveRecord(UUID droneUUID, UUID ownerUUID, boolean linked, String hiveCode,
+               boolean hasTelemetry, double x, double y, double z,
+               String dimensionKey, double health, double maxHealth) {
+        this.droneUUID = droneUUID;
+        this.ownerUUID = ownerUUID;
+        this.linked = linked;
+        this.hiveCode = hiveCode;
+        this.hasTelemetry = hasTelemetry;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.dimensionKey = dimensionKey == null ? "" : dimensionKey;
+        this.health = health;
+        this.maxHealth = maxHealth;
+    }
+
+    /**
+     * Capture the current state of a drone from the managers, or null if none of them knows it.
+     */
+    static HiveRecord capture(UUID droneUUID, HiveMindLinkManager links, HiveCodeManager codes,
+                              DroneTelemetryStore telemetry) {
+        UUID linkOwner = links.getDroneOwner(droneUUID);
+        String hiveCode = codes.getHiveCode(droneUUID);
+        DroneTelemetryStore.DroneData data = telemetry.getDroneData(droneUUID);
+
+        UUID ownerUUID = resolveOwner(linkOwner, codes.getCodeOwner(droneUUID), data);
+        if (ownerUUID == null) {
+            return null;
+        }
+
+        if (data == null) {
+            return new HiveRecord(droneUUID, ownerUUID, linkOwner != null, hiveCode,
+                    false, 0, 0, 0, "", 0, 0);
+        }
+        return new HiveRecord(droneUUID, ownerUUID, linkOwner != null, hiveCode,
+                true, data.x, data.y, data.z, data.dimensionKey, data.health, data.maxHealth);
+    }
+
+    /**
+     * Owner of a drone record: the link owner, else the HiveCode owner, else the telemetry owner.
+     */
+    static UUID resolveOwner(UUID linkOwner, UUID codeOwner, DroneTelemetryStore.DroneData data) {
+        if (linkOwner != null) {
+            return linkOwner;
+        }
+        if (codeOwner != null) {
+            return codeOwner;
+        }
+        return data != null ? data.ownerUUID : null;
+    }
+
+    /**
+     * Make the managers hold exactly this record for the drone, replacing whatever they had.
+     */
+    void applyTo(HiveMindLinkManager links, HiveCodeManager codes, DroneTelemetryStore telemetry) {
+        if (!linked) {
+            links.unlinkDrone(droneUUID);
+        } else if (!ownerUUID.equals(links.getDroneOwner(droneUUID))) {
+            links.unlinkDrone(droneUUID);
+            links.linkDroneToOwner(droneUUID, ownerUUID);
+        }
+
+        if (hiveCode == null) {
+            codes.removeHiveCode(droneUUID);
+        } else if (!hiveCode.equals(codes.getHiveCode(droneUUID))
+                || !ownerUUID.equals(codes.getCodeOwner(droneUUID))) {
+            codes.removeHiveCode(droneUUID);
+            codes.restoreHiveCode(droneUUID, ownerUUID, hiveCode);
+        }
+
+        if (hasTelemetry) {
+            telemetry.updateDroneData(droneUUID, ownerUUID, x, y, z, dimensionKey, health, maxHealth);
+        } else {
+            telemetry.removeDroneData(droneUUID);
+        }
+    }
+
+    /**
+     * Drop every trace of a drone from the managers.
+     */
+    static void removeFrom(UUID droneUUID, HiveMindLinkManager links, HiveCodeManager codes,
+                           DroneTelemetryStore telemetry) {
+        links.unlinkDrone(droneUUID);
+        codes.removeHiveCode(droneUUID);
+        telemetry.removeDroneData(droneUUID);
+    }
+
+    static HiveRecord fromNbt(NbtCompound record) {
+        boolean hasTelemetry = record.contains("Dimension");
+        return new HiveRecord(
+                record.getUuid("DroneUUID"),
+                record.getUuid("OwnerUUID"),
+                record.getBoolean("Linked"),
+                record.contains("HiveCode") ? record.getString("HiveCode") : null,
+                hasTelemetry,
+                record.getDouble("X"), record.getDouble("Y"), record.getDouble("Z"),
+                record.getString("Dimension"),
+                record.getDouble("Health"), record.getDouble("MaxHealth"));
+    }
+
+    void write(DataOutput out) throws IOException {
+        writeUuid(out, droneUUID);
+        writeUuid(out, ownerUUID);
+        int flags = (linked ? FLAG_LINKED : 0)
+                | (hiveCode != null ? FLAG_CODE : 0)
+                | (hasTelemetry ? FLAG_TELEMETRY : 0);
+        out.writeByte(flags);
+        if (hiveCode != null) {
+            out.writeUTF(hiveCode);
+        }
+        if (hasTelemetry) {
+            out.writeDouble(x);
+            out.writeDouble(y);
+            out.writeDouble(z);
+            out.writeUTF(dimensionKey);
+            out.writeDouble(health);
+            out.writeDouble(maxHealth);
+        }
+    }
+
+    static HiveRecord read(DataInput in) throws IOException {
+        UUID droneUUID = readUuid(in);
+        UUID ownerUUID = readUuid(in);
+        int flags = in.readUnsignedByte();
+        String hiveCode = (flags & FLAG_CODE) != 0 ? in.readUTF() : null;
+        if ((flags & FLAG_TELEMETRY) == 0) {
+            return new HiveRecord(droneUUID, ownerUUID, (flags & FLAG_LINKED) != 0, hiveCode,
+                    false, 0, 0, 0, "", 0, 0);
+        }
+        double x = in.readDouble();
+        double y = in.readDouble();
+        double z = in.readDouble();
+        String dimensionKey = in.readUTF();
+        double health = in.readDouble();
+        double maxHealth = in.readDouble();
+        return new HiveRecord(droneUUID, ownerUUID, (flags & FLAG_LINKED) != 0, hiveCode,
+                true, x, y, z, dimensionKey, health, maxHealth);
+    }
+
+    static void writeUuid(DataOutput out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,49 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One owner-hash bucket of the ledger: its own snapshot file and journal.
+ * Only the drones of loaded shards are held by the managers.
+ */
+final class HiveShard {
+    /**
+     * Content of a shard read on the I/O thread, held by a detached ledger until the server
+     * thread applies it.
+     */
+    record Image(HiveLedger data, HiveJournal journal, long snapshotSeq) {
+    }
+
+    final int index;
+    final Path snapshotFile;
+    final Path journalDirectory;
+
+    // Drones of this shard currently held by the managers
+    final Set<UUID> drones = new HashSet<>();
+
+    boolean loaded = false;
+    // Read queued or running on the I/O thread, and what to run on the server thread once it is applied
+    CompletableFuture<Image> pendingRead;
+    final List<Runnable> whenLoaded = new ArrayList<>();
+    HiveJournal journal;
+    // Last journal entry contained in the snapshot on disk; updated once a write completes
+    long snapshotSeq = 0;
+    // Set when the snapshot needs rewriting, again if a write failed
+    boolean compactionPending = false;
+    // Snapshot and journal writes queued or running; the shard stays loaded until they end
+    int writesInFlight = 0;
+    long lastAccessMillis = 0;
+
+    HiveShard(int index, Path directory) {
+        this.index = index;
+        String name = String.format("shard_%02x", index);
+        this.snapshotFile = directory.resolve(name + ".dat");
+        this.journalDirectory = directory.resolve(name);
+    }
+}
@@ -0,0 +1,143 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtList;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the ledger taken on the server thread.
+ * Everything is held in flat arrays so capturing it is a cheap copy; building the
+ * NBT tree and compressing it can then happen on the I/O thread.
+ */
+final class HiveSnapshot {
+    private static final byte FLAG_LINKED = 1;
+    private static final byte FLAG_TELEMETRY = 2;
+
+    final long journalSeq;
+
+    // Per-player counters
+    private final long[] counterOwners; // msb, lsb pairs
+    private final int[] counterValues;
+
+    // One entry per drone record
+    private final int size;
+    private final long[] drones; // msb, lsb pairs
+    private final long[] owners; // msb, lsb pairs
+    private final byte[] flags;
+    private final String[] hiveCodes;
+    private final double[] telemetry; // x, y, z, health, maxHealth
+    private final String[] dimensions;
+
+    private HiveSnapshot(long journalSeq, long[] counterOwners, int[] counterValues, int size,
+                         long[] drones, long[] owners, byte[] flags, String[] hiveCodes,
+                         double[] telemetry, String[] dimensions) {
+        this.journalSeq = journalSeq;
+        this.counterOwners = counterOwners;
+        this.counterValues = counterValues;
+        this.size = size;
+        this.drones = drones;
+        this.owners = owners;
+        this.flags = flags;
+        this.hiveCodes = hiveCodes;
+        this.telemetry = telemetry;
+        this.dimensions = dimensions;
+    }
+
+    static HiveSnapshot capture(Collection<UUID> knownDrones, Object2IntMap<UUID> counters,
+                                HiveMindLinkManager links, HiveCodeManager codes,
+                                DroneTelemetryStore store, long journalSeq) {
+        long[] counterOwners = new long[counters.size() * 2];
+        int[] counterValues = new int[counters.size()];
+        int c = 0;
+        for (Object2IntMap.Entry<UUID> entry : counters.object2IntEntrySet()) {
+            counterOwners[c * 2] = entry.getKey().getMostSignificantBits();
+            counterOwners[c * 2 + 1] = entry.getKey().getLeastSignificantBits();
+            counterValues[c] = entry.getIntValue();
+            c++;
+        }
+
+        int capacity = knownDrones.size();
+        long[] drones = new long[capacity * 2];
+        long[] owners = new long[capacity * 2];
+        byte[] flags = new byte[capacity];
+        String[] hiveCodes = new String[capacity];
+        double[] telemetry = new double[capacity * 5];
+        String[] dimensions = new String[capacity];
+
+        int n = 0;
+        for (UUID droneUUID : knownDrones) {
+            UUID linkOwner = links.getDroneOwner(droneUUID);
+            String hiveCode = codes.getHiveCode(droneUUID);
+            DroneTelemetryStore.DroneData data = store.getDroneData(droneUUID);
+
+            UUID ownerUUID = HiveRecord.resolveOwner(linkOwner, codes.getCodeOwner(droneUUID), data);
+            if (ownerUUID == null) {
+                continue;
+            }
+
+            drones[n * 2] = droneUUID.getMostSignificantBits();
+            drones[n * 2 + 1] = droneUUID.getLeastSignificantBits();
+            owners[n * 2] = ownerUUID.getMostSignificantBits();
+            owners[n * 2 + 1] = ownerUUID.getLeastSignificantBits();
+            hiveCodes[n] = hiveCode;
+            byte flag = linkOwner != null ? FLAG_LINKED : 0;
+            if (data != null) {
+                flag |= FLAG_TELEMETRY;
+                telemetry[n * 5] = data.x;
+                telemetry[n * 5 + 1] = data.y;
+                telemetry[n * 5 + 2] = data.z;
+                telemetry[n * 5 + 3] = data.health;
+                telemetry[n * 5 + 4] = data.maxHealth;
+                dimensions[n] = data.dimensionKey == null ? "" : data.dimensionKey;
+            }
+            flags[n] = flag;
+            n++;
+        }
+
+        return new HiveSnapshot(journalSeq, counterOwners, counterValues, n,
+                drones, owners, flags, hiveCodes, telemetry, dimensions);
+    }
+
+    /**
+     * Encode the snapshot in the ledger's NBT format. Safe to call from any thread.
+     */
+    NbtCompound toNbt(NbtCompound nbt) {
+        NbtCompound countersNbt = new NbtCompound();
+        for (int i = 0; i < counterValues.length; i++) {
+            UUID ownerUUID = new UUID(counterOwners[i * 2], counterOwners[i * 2 + 1]);
+            countersNbt.putInt(ownerUUID.toString(), counterValues[i]);
+        }
+        nbt.put("PlayerCounters", countersNbt);
+
+        NbtList records = new NbtList();
+        for (int i = 0; i < size; i++) {
+            NbtCompound record = new NbtCompound();
+            record.putUuid("DroneUUID", new UUID(drones[i * 2], drones[i * 2 + 1]));
+            record.putUuid("OwnerUUID", new UUID(owners[i * 2], owners[i * 2 + 1]));
+            record.putBoolean("Linked", (flags[i] & FLAG_LINKED) != 0);
+            if (hiveCodes[i] != null) {
+                record.putString("HiveCode", hiveCodes[i]);
+            }
+            if ((flags[i] & FLAG_TELEMETRY) != 0) {
+                record.putDouble("X", telemetry[i * 5]);
+                record.putDouble("Y", telemetry[i * 5 + 1]);
+                record.putDouble("Z", telemetry[i * 5 + 2]);
+                record.putString("Dimension", dimensions[i]);
+                record.putDouble("Health", telemetry[i * 5 + 3]);
+                record.putDouble("MaxHealth", telemetry[i * 5 + 4]);
+            }
+            records.add(record);
+        }
+        nbt.put("Drones", records);
+        nbt.putLong("JournalSeq", journalSeq);
+        return nbt;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,132 @@
+package net.sanfonic.hivemind.data;
+
+import net.sanfonic.hivemind.Hivemind;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deferred hive work, run on the server thread at the end of each tick within a time budget.
+ * Tasks run highest priority first, and in submission order within a priority. Whatever the
+ * budget doesn't cover carries over to the next tick, so a burst of work (a chunk batch full
+ * of drones) is spread over several ticks instead of stalling one. At least one task runs per
+ * tick, so the queue always drains. Server thread only.
+ */
+public final class HiveTickScheduler {
+
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private record Task(String name, Runnable action, long submittedNanos) {
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final List<ArrayDeque<Task>> queues = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    // Last tick, and totals since the server started
+    private static int lastTickTasks = 0;
+    private static long lastTickNanos = 0;
+    private static long totalTasks = 0;
+    private static long totalLatencyNanos = 0;
+    private static long maxLatencyNanos = 0;
+
+    private HiveTickScheduler() {
+    }
+
+    /**
+     * Run the action in this or a later tick. Failures are logged with the task name.
+     */
+    public static void submit(Priority priority, String name, Runnable action) {
+        queues.get(priority.ordinal()).add(new Task(name, action, System.nanoTime()));
+    }
+
+    /**
+     * Run queued tasks until the budget is spent or the queues are empty.
+     *
+     * @return How many tasks ran
+     */
+    public static int tick(long budgetNanos) {
+        long start = System.nanoTime();
+        int run = 0;
+        Task task;
+        while ((task = poll()) != null) {
+            long latency = System.nanoTime() - task.submittedNanos();
+            totalLatencyNanos += latency;
+            maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+            try {
+                task.action().run();
+            } catch (Exception e) {
+                Hivemind.LOGGER.error("Hive task '{}' failed", task.name(), e);
+            }
+            run++;
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+        lastTickTasks = run;
+        lastTickNanos = System.nanoTime() - start;
+        totalTasks += run;
+        return run;
+    }
+
+    private static Task poll() {
+        for (ArrayDeque<Task> queue : queues) {
+            Task task = queue.poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    public static int getQueueDepth() {
+        int depth = 0;
+        for (ArrayDeque<Task> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    public static int getQueueDepth(Priority priority) {
+        return queues.get(priority.ordinal()).size();
+    }
+
+    /**
+     * Mean time from submission to start of the tasks run so far, 0 before the first one
+     */
+    public static double getAverageLatencyMillis() {
+        return totalTasks > 0 ? totalLatencyNanos / 1_000_000.0 / totalTasks : 0;
+    }
+
+    public static double getMaxLatencyMillis() {
+        return maxLatencyNanos / 1_000_000.0;
+    }
+
+    public static String getStats() {
+        return String.format("%d queued (%d high, %d normal, %d low), last tick %d tasks in %.2f ms, "
+                        + "latency avg %.1f ms / max %.1f ms",
+                getQueueDepth(), getQueueDepth(Priority.HIGH), getQueueDepth(Priority.NORMAL),
+                getQueueDepth(Priority.LOW), lastTickTasks, lastTickNanos / 1_000_000.0,
+                getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+
+    /**
+     * Drop queued work and reset the statistics; called when the server stops.
+     */
+    public static void clear() {
+        queues.forEach(ArrayDeque::clear);
+        lastTickTasks = 0;
+        lastTickNanos = 0;
+        totalTasks = 0;
+        totalLatencyNanos = 0;
+        maxLatencyNanos = 0;
+    }
+}
@@ -0,0 +1,172 @@
+package net.sanfonic.hivemind.data.collection;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open-addressing hash table of UUIDs stored as two longs per slot, with linear probing and
+ * backward-shift deletion (no tombstones). Subclasses keep parallel per-slot arrays in step
+ * through {@link #moveSlot}, {@link #clearSlot} and {@link #resize}.
+ */
+abstract class UuidHashTable {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 16;
+
+    // msb at 2 * slot, lsb at 2 * slot + 1; (0, 0) marks a free slot
+    long[] keys;
+    int mask;
+    int size;
+    private int maxFill;
+
+    // The nil UUID can't live in the table since (0, 0) marks a free slot
+    boolean hasNilKey;
+
+    UuidHashTable(int expected) {
+        int capacity = tableSize(expected);
+        keys = new long[capacity * 2];
+        mask = capacity - 1;
+        maxFill = maxFill(capacity);
+    }
+
+    /**
+     * Copy the per-slot data of {@code from} into {@code to}.
+     */
+    abstract void moveSlot(int from, int to);
+
+    /**
+     * Drop the per-slot data of a slot that just became free.
+     */
+    abstract void clearSlot(int slot);
+
+    /**
+     * Start a rehash into a table of the given capacity; {@link #relocate} follows for every
+     * occupied slot, then {@link #finishResize}.
+     */
+    abstract void resize(int capacity);
+
+    abstract void relocate(int from, int to);
+
+    abstract void finishResize();
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(UUID uuid) {
+        return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public boolean contains(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) {
+            return hasNilKey;
+        }
+        return find(msb, lsb) >= 0;
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0);
+        for (int slot = 0; slot <= mask; slot++) {
+            clearSlot(slot);
+        }
+        hasNilKey = false;
+        size = 0;
+    }
+
+    // Slot holding the key, or -(insertion slot + 1) when it's absent
+    final int find(long msb, long lsb) {
+        int slot = hash(msb, lsb) & mask;
+        while (!isFree(slot)) {
+            if (keys[slot * 2] == msb && keys[slot * 2 + 1] == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    // Subclasses fill their per-slot data first, the slot is stale once this returns
+    final void insertAt(int slot, long msb, long lsb) {
+        keys[slot * 2] = msb;
+        keys[slot * 2 + 1] = lsb;
+        if (++size >= maxFill) {
+            rehash((mask + 1) * 2);
+        }
+    }
+
+    final boolean isFree(int slot) {
+        return keys[slot * 2] == 0 && keys[slot * 2 + 1] == 0;
+    }
+
+    final UUID keyAt(int slot) {
+        return new UUID(keys[slot * 2], keys[slot * 2 + 1]);
+    }
+
+    // Remove the key in a slot, shifting later keys of the same probe run back into the gap
+    final void removeAt(int slot) {
+        size--;
+        int last;
+        for (;;) {
+            slot = ((last = slot) + 1) & mask;
+            for (;;) {
+                if (isFree(slot)) {
+                    keys[last * 2] = 0;
+                    keys[last * 2 + 1] = 0;
+                    clearSlot(last);
+                    return;
+                }
+                int home = hash(keys[slot * 2], keys[slot * 2 + 1]) & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last * 2] = keys[slot * 2];
+            keys[last * 2 + 1] = keys[slot * 2 + 1];
+            moveSlot(slot, last);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        keys = new long[capacity * 2];
+        mask = capacity - 1;
+        maxFill = maxFill(capacity);
+        resize(capacity);
+        for (int from = 0; from < oldKeys.length / 2; from++) {
+            long msb = oldKeys[from * 2];
+            long lsb = oldKeys[from * 2 + 1];
+            if (msb == 0 && lsb == 0) {
+                continue;
+            }
+            int to = hash(msb, lsb) & mask;
+            while (!isFree(to)) {
+                to = (to + 1) & mask;
+            }
+            keys[to * 2] = msb;
+            keys[to * 2 + 1] = lsb;
+            relocate(from, to);
+        }
+        finishResize();
+    }
+
+    static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSize(int expected) {
+        int needed = (int) Math.ceil(Math.max(expected, 1) / LOAD_FACTOR);
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    private static int maxFill(int capacity) {
+        return Math.min(capacity - 1, (int) Math.ceil(capacity * LOAD_FACTOR));
+    }
+}
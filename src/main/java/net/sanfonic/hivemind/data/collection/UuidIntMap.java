@@ -0,0 +1,137 @@
+package net.sanfonic.hivemind.data.collection;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Map from UUID to int in an open-addressing table, with no boxing on either side.
+ * Lookups of absent keys return the default value (-1 unless changed). Not thread-safe.
+ */
+public final class UuidIntMap extends UuidHashTable {
+    private int[] values;
+    private int[] resizedValues;
+    private int nilValue;
+    private int defaultValue = -1;
+
+    public UuidIntMap() {
+        this(16);
+    }
+
+    public UuidIntMap(int expected) {
+        super(expected);
+        values = new int[mask + 1];
+    }
+
+    public void defaultReturnValue(int value) {
+        defaultValue = value;
+    }
+
+    public boolean containsKey(UUID key) {
+        return contains(key);
+    }
+
+    public int getInt(UUID key) {
+        return getInt(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    public int getInt(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) {
+            return hasNilKey ? nilValue : defaultValue;
+        }
+        int slot = find(msb, lsb);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @return The previous value, or the default value if the key was absent
+     */
+    public int put(UUID key, int value) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        if (msb == 0 && lsb == 0) {
+            int previous = hasNilKey ? nilValue : defaultValue;
+            if (!hasNilKey) {
+                hasNilKey = true;
+                size++;
+            }
+            nilValue = value;
+            return previous;
+        }
+        int slot = find(msb, lsb);
+        if (slot >= 0) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        slot = -slot - 1;
+        values[slot] = value;
+        insertAt(slot, msb, lsb);
+        return defaultValue;
+    }
+
+    /**
+     * @return The removed value, or the default value if the key was absent
+     */
+    public int removeInt(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        if (msb == 0 && lsb == 0) {
+            if (!hasNilKey) {
+                return defaultValue;
+            }
+            hasNilKey = false;
+            size--;
+            return nilValue;
+        }
+        int slot = find(msb, lsb);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        int previous = values[slot];
+        removeAt(slot);
+        return previous;
+    }
+
+    /**
+     * Snapshot of the keys.
+     */
+    public Set<UUID> keySet() {
+        Set<UUID> keys = new HashSet<>(size * 2);
+        if (hasNilKey) {
+            keys.add(new UUID(0, 0));
+        }
+        for (int slot = 0; slot <= mask; slot++) {
+            if (!isFree(slot)) {
+                keys.add(keyAt(slot));
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        values[slot] = 0;
+    }
+
+    @Override
+    void resize(int capacity) {
+        resizedValues = new int[capacity];
+    }
+
+    @Override
+    void relocate(int from, int to) {
+        resizedValues[to] = values[from];
+    }
+
+    @Override
+    void finishResize() {
+        values = resizedValues;
+        resizedValues = null;
+    }
+}
@@ -0,0 +1,190 @@
+package net.sanfonic.hivemind.data.collection;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Map from UUID to a non-null value, keyed by the two longs of the UUID in an open-addressing
+ * table. A slot costs the 16 key bytes plus one reference, against roughly 80 bytes for a
+ * {@code HashMap<UUID, V>} entry (node, UUID object and table slot).
+ * Not thread-safe.
+ */
+public final class UuidMap<V> extends UuidHashTable {
+    private Object[] values;
+    private Object[] resizedValues;
+    private V nilValue;
+
+    public UuidMap() {
+        this(16);
+    }
+
+    public UuidMap(int expected) {
+        super(expected);
+        values = new Object[mask + 1];
+    }
+
+    public V get(UUID key) {
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) {
+            return nilValue;
+        }
+        int slot = find(msb, lsb);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    public V getOrDefault(UUID key, V fallback) {
+        V value = get(key);
+        return value != null ? value : fallback;
+    }
+
+    public boolean containsKey(UUID key) {
+        return contains(key);
+    }
+
+    /**
+     * @return The previous value, or null if the key was absent
+     */
+    public V put(UUID key, V value) {
+        return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long msb, long lsb, V value) {
+        if (value == null) {
+            throw new NullPointerException("UuidMap values can't be null");
+        }
+        if (msb == 0 && lsb == 0) {
+            V previous = nilValue;
+            if (!hasNilKey) {
+                hasNilKey = true;
+                size++;
+            }
+            nilValue = value;
+            return previous;
+        }
+        int slot = find(msb, lsb);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        slot = -slot - 1;
+        values[slot] = value;
+        insertAt(slot, msb, lsb);
+        return null;
+    }
+
+    public V remove(UUID key) {
+        return remove(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) {
+            V previous = nilValue;
+            if (hasNilKey) {
+                hasNilKey = false;
+                nilValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int slot = find(msb, lsb);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        removeAt(slot);
+        return previous;
+    }
+
+    /**
+     * Visit every entry. The map must not be changed while visiting.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<UUID, ? super V> action) {
+        if (hasNilKey) {
+            action.accept(new UUID(0, 0), nilValue);
+        }
+        for (int slot = 0; slot <= mask; slot++) {
+            if (!isFree(slot)) {
+                action.accept(keyAt(slot), (V) values[slot]);
+            }
+        }
+    }
+
+    public void forEachKey(Consumer<UUID> action) {
+        forEach((key, value) -> action.accept(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        if (hasNilKey) {
+            action.accept(nilValue);
+        }
+        for (int slot = 0; slot <= mask; slot++) {
+            if (!isFree(slot)) {
+                action.accept((V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the keys.
+     */
+    public Set<UUID> keySet() {
+        Set<UUID> keys = new HashSet<>(size * 2);
+        forEachKey(keys::add);
+        return keys;
+    }
+
+    /**
+     * Snapshot of the values.
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEachValue(result::add);
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        nilValue = null;
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    void resize(int capacity) {
+        resizedValues = new Object[capacity];
+    }
+
+    @Override
+    void relocate(int from, int to) {
+        resizedValues[to] = values[from];
+    }
+
+    @Override
+    void finishResize() {
+        values = resizedValues;
+        resizedValues = null;
+    }
+}
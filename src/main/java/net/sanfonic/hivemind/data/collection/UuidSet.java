@@ -0,0 +1,108 @@
+package net.sanfonic.hivemind.data.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set of UUIDs stored as long pairs in an open-addressing table, 16 bytes per slot.
+ * Add, remove and contains are O(1). Not thread-safe.
+ */
+public final class UuidSet extends UuidHashTable {
+
+    public UuidSet() {
+        this(16);
+    }
+
+    public UuidSet(int expected) {
+        super(expected);
+    }
+
+    /**
+     * @return true if the UUID was not in the set yet
+     */
+    public boolean add(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        if (msb == 0 && lsb == 0) {
+            if (hasNilKey) {
+                return false;
+            }
+            hasNilKey = true;
+            size++;
+            return true;
+        }
+        int slot = find(msb, lsb);
+        if (slot >= 0) {
+            return false;
+        }
+        insertAt(-slot - 1, msb, lsb);
+        return true;
+    }
+
+    /**
+     * @return true if the UUID was in the set
+     */
+    public boolean remove(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        if (msb == 0 && lsb == 0) {
+            if (!hasNilKey) {
+                return false;
+            }
+            hasNilKey = false;
+            size--;
+            return true;
+        }
+        int slot = find(msb, lsb);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * Visit every UUID. The set must not be changed while visiting.
+     */
+    public void forEach(Consumer<UUID> action) {
+        if (hasNilKey) {
+            action.accept(new UUID(0, 0));
+        }
+        for (int slot = 0; slot <= mask; slot++) {
+            if (!isFree(slot)) {
+                action.accept(keyAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the UUIDs.
+     */
+    public List<UUID> toList() {
+        List<UUID> result = new ArrayList<>(size);
+        forEach(result::add);
+        return result;
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+    }
+
+    @Override
+    void clearSlot(int slot) {
+    }
+
+    @Override
+    void resize(int capacity) {
+    }
+
+    @Override
+    void relocate(int from, int to) {
+    }
+
+    @Override
+    void finishResize() {
+    }
+}
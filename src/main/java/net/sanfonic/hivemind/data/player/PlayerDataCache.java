@@ -0,0 +1,182 @@
+package net.sanfonic.hivemind.data.player;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Bounded LRU cache of player data. Entries are evicted once the cache grows past its size
+ * limit or when they were not used for the idle time; pinned entries (online players) are
+ * never evicted. Dirty entries are handed to the write-back before they are dropped.
+ */
+final class PlayerDataCache {
+
+    /**
+     * Persists one entry; called for dirty entries when they are written back or evicted.
+     */
+    @FunctionalInterface
+    interface WriteBack {
+        void write(UUID uuid, File dataFile, PlayerHiveComponent.PlayerHiveData data);
+    }
+
+    private static final class Entry {
+        final PlayerHiveComponent.PlayerHiveData data;
+        final File dataFile;
+        long lastAccessMillis;
+        boolean dirty;
+
+        Entry(PlayerHiveComponent.PlayerHiveData data, File dataFile, long now) {
+            this.data = data;
+            this.dataFile = dataFile;
+            this.lastAccessMillis = now;
+        }
+    }
+
+    // Access order, least recently used first
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Predicate<UUID> pinned;
+    private final WriteBack writeBack;
+    private int maxSize;
+    private long idleMillis;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    PlayerDataCache(int maxSize, long idleMillis, Predicate<UUID> pinned, WriteBack writeBack) {
+        this.pinned = pinned;
+        this.writeBack = writeBack;
+        setLimits(maxSize, idleMillis);
+    }
+
+    synchronized void setLimits(int maxSize, long idleMillis) {
+        this.maxSize = Math.max(1, maxSize);
+        this.idleMillis = Math.max(0, idleMillis);
+    }
+
+    /**
+     * Cached data of a player, or null on a miss. Counts towards the hit rate.
+     */
+    synchronized PlayerHiveComponent.PlayerHiveData get(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        entry.lastAccessMillis = System.currentTimeMillis();
+        return entry.data;
+    }
+
+    /**
+     * Cached data of a player without touching the statistics or the LRU order.
+     */
+    synchronized PlayerHiveComponent.PlayerHiveData peek(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        return entry != null ? entry.data : null;
+    }
+
+    synchronized boolean contains(UUID uuid) {
+        return entries.containsKey(uuid);
+    }
+
+    synchronized void put(UUID uuid, File dataFile, PlayerHiveComponent.PlayerHiveData data) {
+        entries.put(uuid, new Entry(data, dataFile, System.currentTimeMillis()));
+        evictOverflow();
+    }
+
+    synchronized void markDirty(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        if (entry != null) {
+            entry.dirty = true;
+        }
+    }
+
+    /**
+     * Write back one player's entry if it has unsaved changes.
+     */
+    synchronized void writeBack(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        if (entry != null && entry.dirty) {
+            entry.dirty = false;
+            writeBack.write(uuid, entry.dataFile, entry.data);
+        }
+    }
+
+    /**
+     * Write back every entry with unsaved changes.
+     */
+    synchronized void writeBackAll() {
+        for (Map.Entry<UUID, Entry> mapping : entries.entrySet()) {
+            Entry entry = mapping.getValue();
+            if (entry.dirty) {
+                entry.dirty = false;
+                writeBack.write(mapping.getKey(), entry.dataFile, entry.data);
+            }
+        }
+    }
+
+    /**
+     * Drop every unpinned entry that wasn't used for the idle time.
+     */
+    synchronized void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<UUID, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Entry> mapping = iterator.next();
+            if (now - mapping.getValue().lastAccessMillis >= idleMillis && !pinned.test(mapping.getKey())) {
+                evict(mapping.getKey(), mapping.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    // Drop least recently used unpinned entries until the cache fits its size again
+    private void evictOverflow() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        List<UUID> victims = new ArrayList<>();
+        int excess = entries.size() - maxSize;
+        for (UUID uuid : entries.keySet()) {
+            if (victims.size() == excess) {
+                break;
+            }
+            if (!pinned.test(uuid)) {
+                victims.add(uuid);
+            }
+        }
+        for (UUID uuid : victims) {
+            evict(uuid, entries.remove(uuid));
+        }
+    }
+
+    private void evict(UUID uuid, Entry entry) {
+        if (entry.dirty) {
+            entry.dirty = false;
+            writeBack.write(uuid, entry.dataFile, entry.data);
+        }
+        evictions++;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -1,18 +1,47 @@
 package net.sanfonic.hivemind.data.player;
 
 import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import com.mojang.authlib.GameProfile;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerLoginConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.network.ServerLoginNetworkHandler;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Uuids;
 import net.sanfonic.hivemind.Hivemind;
+import net.sanfonic.hivemind.data.HiveMindData.HiveMindData;
+import net.sanfonic.hivemind.mixin.ServerLoginNetworkHandlerAccessor;
+
+import java.util.UUID;
 
 /**
  * Handles saving and loading player HiveMind data
  */
 public class PlayerDataEvents {
+    // Write back changed player data once a second, check for idle entries once a minute
+    private static final int WRITE_BACK_INTERVAL = 20;
+    private static final int EVICTION_INTERVAL = 1200;
 
     public static void register() {
         Hivemind.LOGGER.debug("Registering PlayerDataEvents");
 
+        // Start reading player data during login; the login only completes once it is read
+        ServerLoginConnectionEvents.QUERY_START.register((handler, server, sender, synchronizer) -> {
+            UUID uuid = getLoginUuid(handler);
+            if (uuid != null) {
+                synchronizer.waitFor(PlayerHiveComponent.prefetch(server, uuid));
+            }
+        });
+
+        // Drop the prefetch if the login fails
+        ServerLoginConnectionEvents.DISCONNECT.register((handler, server) -> {
+            UUID uuid = getLoginUuid(handler);
+            if (uuid != null) {
+                PlayerHiveComponent.cancelPrefetch(uuid);
+            }
+        });
+
         // Load data when player joins
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             ServerPlayerEntity player = handler.getPlayer();
@@ -34,16 +63,45 @@ public class PlayerDataEvents {
             PlayerHiveComponent.onPlayerLeave(player);
         });
 
+        // Carry the attached HiveMind data over to the new player entity
+        ServerPlayerEvents.COPY_FROM.register((oldPlayer, newPlayer, alive) ->
+                HiveMindData.copyPlayerData(oldPlayer, newPlayer));
+
         // Handle respawn - Copy data to new entity
         ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
             Hivemind.LOGGER.debug("Player respawn event for {}", newPlayer.getName().getString());
             // The data is store by UUID, so it should carry over automatically
-            // Just force a save to be safe
+            // Just queue a save to be safe
             if (PlayerHiveComponent.hasAccess(newPlayer)) {
                 PlayerHiveComponent.setAccess(newPlayer, true);
             }
         });
 
+        // Write back changed player data and evict players who have been away for a while
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (server.getTicks() % WRITE_BACK_INTERVAL == 0) {
+                PlayerHiveComponent.writeDirty();
+            }
+            if (server.getTicks() % EVICTION_INTERVAL == 0) {
+                PlayerHiveComponent.evictIdle();
+            }
+        });
+
+        // Write out queued player data before the server shuts down
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> PlayerHiveComponent.flush());
+
         Hivemind.LOGGER.debug("Player data events registered");
     }
+
+    /**
+     * UUID the connecting player will have, or null if the login hasn't got that far
+     */
+    private static UUID getLoginUuid(ServerLoginNetworkHandler handler) {
+        GameProfile profile = ((ServerLoginNetworkHandlerAccessor) handler).getProfile();
+        if (profile == null) {
+            return null;
+        }
+        // Offline-mode profiles only get their UUID when the login is accepted
+        return profile.getId() != null ? profile.getId() : Uuids.getOfflinePlayerUuid(profile.getName());
+    }
 }
@@ -4,23 +4,48 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.world.World;
 import net.sanfonic.hivemind.Hivemind;
+import net.sanfonic.hivemind.config.ModConfig;
+import net.sanfonic.hivemind.data.HiveIoExecutor;
 
 import java.io.File;
-import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Server-side storage for player HiveMind data with FILE-BASED persistence
- * This is the ONLY way to reliably save player data in Fabric
+ * Server-side storage for player HiveMind data with FILE-BASED persistence.
+ * The in-memory cache is authoritative; files are read and written behind it on the
+ * {@link HiveIoExecutor} thread, so disk I/O never runs during a tick. Changes mark the
+ * cached entry dirty and are written back (atomically) once a second, when the player
+ * leaves, or when the entry is evicted.
  */
 public class PlayerHiveComponent {
-    // In-memory cache for active players
-    private static final Map<UUID, PlayerHiveData> PLAYER_DATA = new HashMap<>();
+    // Players currently connected; their cache entries are never evicted
+    private static final Set<UUID> ONLINE = ConcurrentHashMap.newKeySet();
+
+    // Bounded cache of player data, evicting players who have been away for a while
+    private static final PlayerDataCache PLAYER_DATA = new PlayerDataCache(
+            ModConfig.getInstance().playerCacheSize,
+            ModConfig.getInstance().playerCacheIdleMinutes * 60_000L,
+            ONLINE::contains,
+            PlayerHiveComponent::saveInBackground);
+
+    // Players whose file is still being read; their cache entry holds defaults until then
+    private static final Set<UUID> PENDING_LOADS = new HashSet<>();
+
+    // Reads started during login, picked up by the first getData
+    private static final Map<UUID, CompletableFuture<NbtCompound>> PREFETCHES = new HashMap<>();
+
+    // Latest unsaved state per player, taken by the write task on the I/O thread
+    private static final Map<UUID, NbtCompound> PENDING_WRITES = new ConcurrentHashMap<>();
 
     // NBT keys
     private static final String NBT_ACCESS = "hasAccess";
@@ -57,56 +82,133 @@ public class PlayerHiveComponent {
      * Get the save file for a player
      */
     private static File getPlayerDataFile(ServerPlayerEntity player) {
-        World world = player.getWorld();
-        File worldDir = world.getServer().getRunDirectory();
-        File savesDir = new File(worldDir, "saves");
-        File currentWorldDir = new File(savesDir, world.getServer()
-                .getSaveProperties().getLevelName());
-        File hivemindDir = new File(worldDir, "hivemind");
-
-        if (!hivemindDir.exists()) {
-            hivemindDir.mkdirs();
-        }
+        return getPlayerDataFile(player.getServer(), player.getUuid());
+    }
 
-        return new File(hivemindDir, player.getUuidAsString() + ".dat");
+    private static File getPlayerDataFile(MinecraftServer server, UUID uuid) {
+        File worldDir = server.getRunDirectory();
+        File hivemindDir = new File(worldDir, "hivemind"); // Created by the first write
+
+        return new File(hivemindDir, uuid + ".dat");
     }
 
     /**
-     * Load data from file
+     * Start reading a connecting player's data on the I/O thread, as soon as their UUID is
+     * known during login. The returned future completes once the file was read; the join
+     * then picks the data up without touching the disk.
      */
-    private static PlayerHiveData loadFromFile(ServerPlayerEntity player) {
-        File dataFile = getPlayerDataFile(player);
+    public static CompletableFuture<?> prefetch(MinecraftServer server, UUID uuid) {
+        if (PLAYER_DATA.contains(uuid)) {
+            // Still cached from an earlier visit, which is newer than the file
+            return CompletableFuture.completedFuture(null);
+        }
+        return PREFETCHES.computeIfAbsent(uuid, id -> readInBackground(server, id));
+    }
 
-        if (dataFile.exists()) {
+    /**
+     * Forget a prefetch for a player who never finished logging in.
+     */
+    public static void cancelPrefetch(UUID uuid) {
+        PREFETCHES.remove(uuid);
+    }
+
+    // Read the player's file on the I/O thread; completes with null if there is none or it can't be read
+    private static CompletableFuture<NbtCompound> readInBackground(MinecraftServer server, UUID uuid) {
+        File dataFile = getPlayerDataFile(server, uuid);
+        CompletableFuture<NbtCompound> future = new CompletableFuture<>();
+
+        // Writes queued earlier run first, so the read always sees them
+        HiveIoExecutor.submit("load player data " + uuid, () -> {
+            NbtCompound nbt = null;
             try {
-                NbtCompound nbt = NbtIo.read(dataFile);
-                Hivemind.LOGGER.debug("Loaded existing data from file for {}", player.getName().getString());
-                return PlayerHiveData.fromNbt(nbt);
-            } catch (IOException e) {
-                Hivemind.LOGGER.error("Failed to load data for {}", player.getName().getString(), e);
+                if (dataFile.exists()) {
+                    nbt = NbtIo.read(dataFile);
+                }
+            } finally {
+                future.complete(nbt);
             }
+        });
+        return future;
+    }
+
+    /**
+     * Use the prefetched file if it is already read, otherwise read it in the background
+     * and apply it on the server thread once it arrives.
+     */
+    private static PlayerHiveData load(ServerPlayerEntity player) {
+        UUID uuid = player.getUuid();
+        String name = player.getName().getString();
+        CompletableFuture<NbtCompound> future = PREFETCHES.remove(uuid);
+
+        if (future != null && future.isDone()) {
+            NbtCompound nbt = future.join();
+            PlayerHiveData data;
+            if (nbt != null) {
+                Hivemind.LOGGER.debug("Loaded existing data from file for {}", name);
+                data = PlayerHiveData.fromNbt(nbt);
+            } else {
+                Hivemind.LOGGER.debug("No existing data file, creating new for {}", name);
+                data = new PlayerHiveData();
+            }
+            PLAYER_DATA.put(uuid, getPlayerDataFile(player), data);
+            return data;
+        }
+
+        if (future == null) {
+            future = readInBackground(player.getServer(), uuid);
+        }
+        // Cache the defaults first, the read may complete right away
+        PlayerHiveData data = new PlayerHiveData();
+        PLAYER_DATA.put(uuid, getPlayerDataFile(player), data);
+        PENDING_LOADS.add(uuid);
+        MinecraftServer server = player.getServer();
+        future.thenAccept(nbt -> server.execute(() -> applyLoaded(uuid, name, nbt)));
+        return data;
+    }
+
+    // Runs on the server thread once the file has been read
+    private static void applyLoaded(UUID uuid, String name, NbtCompound nbt) {
+        if (!PENDING_LOADS.remove(uuid)) {
+            // Changed in the meantime; the in-memory state is newer than the file
+            return;
+        }
+        PlayerHiveData data = PLAYER_DATA.peek(uuid);
+        if (data == null || nbt == null) {
+            Hivemind.LOGGER.debug("No existing data file, creating new for {}", name);
+            return;
         }
 
-        Hivemind.LOGGER.debug("No existing data file, creating new for {}", player.getName().getString());
-        return new PlayerHiveData();
+        // Update in place, callers may already hold the cached instance
+        PlayerHiveData loaded = PlayerHiveData.fromNbt(nbt);
+        data.hasAccess = loaded.hasAccess;
+        data.hiveId = loaded.hiveId;
+        data.joinTime = loaded.joinTime;
+        Hivemind.LOGGER.debug("Loaded existing data from file for {}", name);
     }
 
     /**
-     * Save data to file
+     * Queue the player's current data for writing. Several write-backs before the I/O thread
+     * gets to them are written once, with the latest state.
      */
-    private static void saveToFile(ServerPlayerEntity player, PlayerHiveData data) {
-        File dataFile = getPlayerDataFile(player);
-
-        try {
-            NbtIo.write(data.toNbt(), dataFile);
-            Hivemind.LOGGER.debug("Saved data to file for {}", player.getName().getString());
-        } catch (IOException e) {
-            Hivemind.LOGGER.error("Failed to save data for {}", player.getName().getString(), e);
+    private static void saveInBackground(UUID uuid, File dataFile, PlayerHiveData data) {
+        if (PENDING_WRITES.put(uuid, data.toNbt()) != null) {
+            // A write for this player is already queued and will pick up the new state
+            return;
         }
+        HiveIoExecutor.submit("save player data " + uuid, () -> {
+            NbtCompound nbt = PENDING_WRITES.remove(uuid);
+            if (nbt == null) {
+                return;
+            }
+            Files.createDirectories(dataFile.getParentFile().toPath());
+            HiveIoExecutor.writeAtomically(dataFile, temp -> NbtIo.write(nbt, temp));
+            Hivemind.LOGGER.debug("Saved data to file for {}", uuid);
+        });
     }
 
     /**
-     * Get or create player data
+     * Get or create player data. Never touches the disk; a player whose file is still
+     * being read sees default data until it arrives.
      */
     public static PlayerHiveData getData(PlayerEntity player) {
         if (!(player instanceof ServerPlayerEntity serverPlayer)) {
@@ -116,13 +218,44 @@ public class PlayerHiveComponent {
         UUID uuid = player.getUuid();
 
         // Check cache first
-        if (!PLAYER_DATA.containsKey(uuid)) {
-            // Load from file
-            PlayerHiveData data = loadFromFile(serverPlayer);
-            PLAYER_DATA.put(uuid, data);
+        PlayerHiveData data = PLAYER_DATA.get(uuid);
+        if (data == null) {
+            data = load(serverPlayer);
         }
 
-        return PLAYER_DATA.get(uuid);
+        return data;
+    }
+
+    /**
+     * Queue writes for every player with unsaved changes. Called once a second.
+     */
+    public static void writeDirty() {
+        PLAYER_DATA.writeBackAll();
+    }
+
+    /**
+     * Drop players from the cache who have been offline for the configured idle time.
+     */
+    public static void evictIdle() {
+        ModConfig config = ModConfig.getInstance();
+        PLAYER_DATA.setLimits(config.playerCacheSize, config.playerCacheIdleMinutes * 60_000L);
+        PLAYER_DATA.evictIdle();
+    }
+
+    /**
+     * Write out every unsaved change and block until it is on disk. Called when the server stops.
+     */
+    public static void flush() {
+        PLAYER_DATA.writeBackAll();
+        HiveIoExecutor.flush();
+    }
+
+    /**
+     * One-line summary of the player data cache for debug output
+     */
+    public static String getCacheStats() {
+        return String.format("%d cached, %d hits, %d misses, %d evictions",
+                PLAYER_DATA.size(), PLAYER_DATA.getHits(), PLAYER_DATA.getMisses(), PLAYER_DATA.getEvictions());
     }
 
     /**
@@ -148,8 +281,9 @@ public class PlayerHiveComponent {
             data.joinTime = System.currentTimeMillis();
         }
 
-        // Save immediately to file
-        saveToFile(serverPlayer, data);
+        // The in-memory state now wins over a file that is still being read
+        PENDING_LOADS.remove(player.getUuid());
+        PLAYER_DATA.markDirty(serverPlayer.getUuid());
 
         Hivemind.LOGGER.debug("Set access for {} to {}", player.getName().getString(), access);
     }
@@ -211,13 +345,13 @@ public class PlayerHiveComponent {
     }
 
     /**
-     * Called when player joins - load their data
+     * Called when player joins - take over the data prefetched during login
      */
     public static void onPlayerJoin(ServerPlayerEntity player) {
         Hivemind.LOGGER.debug("Player joined: {}", player.getName().getString());
-        // Force reload from file
-        PLAYER_DATA.remove(player.getUuid());
-        getData(player); // This will trigger loadFromFile
+        ONLINE.add(player.getUuid());
+        getData(player); // Cached data from an earlier visit is newer than the file
+        PREFETCHES.remove(player.getUuid());
     }
 
     /**
@@ -225,10 +359,8 @@ public class PlayerHiveComponent {
      */
     public static void onPlayerLeave(ServerPlayerEntity player) {
         Hivemind.LOGGER.debug("Player leaving: {}", player.getName().getString());
-        PlayerHiveData data = PLAYER_DATA.get(player.getUuid());
-        if (data != null) {
-            saveToFile(player, data);
-        }
-        // Keep in cache for potential quick rejoin
+        ONLINE.remove(player.getUuid());
+        PLAYER_DATA.writeBack(player.getUuid());
+        // Keep in cache for potential quick rejoin, until it is evicted
     }
 }
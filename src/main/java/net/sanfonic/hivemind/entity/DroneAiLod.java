@@ -0,0 +1,78 @@
+package net.sanfonic.hivemind.entity;
+
+/**
+ * AI level of detail for drones, by distance to the nearest player. Drones near a player run
+ * the full vanilla AI; farther out, goals are only picked every few ticks; beyond that, a drone
+ * only finishes the path it is on. Dormant drones run no AI at all. Also counts how many drones
+ * ran each tier in the last tick.
+ */
+public final class DroneAiLod {
+
+    public enum Tier {
+        FULL("full"),
+        REDUCED("reduced"),
+        MOVEMENT_ONLY("movement-only"),
+        DORMANT("dormant");
+
+        private final String displayName;
+
+        Tier(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    // Drones are rechecked against player positions this often, staggered by entity id
+    public static final int RECHECK_TICKS = 20;
+
+    private static final Tier[] TIERS = Tier.values();
+    // Drones per tier counted during the current tick, and the totals of the last one
+    private static final int[] counting = new int[TIERS.length];
+    private static final int[] counts = new int[TIERS.length];
+
+    private DroneAiLod() {
+    }
+
+    /**
+     * @param playerDistance Distance to the nearest player, or a negative value if there's none
+     *                       within {@code reducedDistance}
+     */
+    public static Tier tierFor(double playerDistance, double fullDistance, double reducedDistance) {
+        if (playerDistance < 0 || playerDistance > reducedDistance) {
+            return Tier.MOVEMENT_ONLY;
+        }
+        return playerDistance <= fullDistance ? Tier.FULL : Tier.REDUCED;
+    }
+
+    static void record(Tier tier) {
+        counting[tier.ordinal()]++;
+    }
+
+    /**
+     * Publish this tick's counts; called once at the end of each server tick.
+     */
+    public static void endTick() {
+        for (int i = 0; i < TIERS.length; i++) {
+            counts[i] = counting[i];
+            counting[i] = 0;
+        }
+    }
+
+    public static int getCount(Tier tier) {
+        return counts[tier.ordinal()];
+    }
+
+    public static String getStats() {
+        StringBuilder stats = new StringBuilder();
+        for (Tier tier : TIERS) {
+            if (!stats.isEmpty()) {
+                stats.append(", ");
+            }
+            stats.append(counts[tier.ordinal()]).append(' ').append(tier.getDisplayName());
+        }
+        return stats.toString();
+    }
+}
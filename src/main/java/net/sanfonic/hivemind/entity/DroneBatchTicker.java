@@ -0,0 +1,110 @@
+package net.sanfonic.hivemind.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.sanfonic.hivemind.config.ModConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * With {@code batchedDroneTicks} on, drones leave their AI, hive bookkeeping and role logic to
+ * one pass per world after entity ticking. The pass groups the drones that ticked by chunk
+ * section, so drones clustered in a base run back to back instead of interleaved with every
+ * other entity of the world, and share one {@link DroneChunkContext} for their world lookups.
+ * The grouping buffers and the context are kept between ticks. Server thread only.
+ */
+public final class DroneBatchTicker {
+    // Drones of the current pass by chunk section, and emptied lists to reuse
+    private static final Long2ObjectOpenHashMap<List<DroneEntity>> bySection = new Long2ObjectOpenHashMap<>();
+    private static final List<List<DroneEntity>> spareLists = new ArrayList<>();
+    // Lookups of the section being run, batched or not
+    private static final DroneChunkContext context = new DroneChunkContext();
+
+    // Drones and sections run during the current tick, and the totals of the last one
+    private static int countingDrones = 0;
+    private static int countingSections = 0;
+    private static int drones = 0;
+    private static int sections = 0;
+
+    private DroneBatchTicker() {
+    }
+
+    public static boolean isEnabled() {
+        return ModConfig.getInstance().batchedDroneTicks;
+    }
+
+    /**
+     * Run the hive tick of the world's drones that ticked; called at the end of each world tick.
+     */
+    public static void tick(ServerWorld world) {
+        if (!isEnabled()) {
+            return;
+        }
+        DroneRegistry.forEach(world, DroneBatchTicker::group);
+        for (Long2ObjectMap.Entry<List<DroneEntity>> entry : bySection.long2ObjectEntrySet()) {
+            List<DroneEntity> group = entry.getValue();
+            context.moveTo(world, entry.getLongKey());
+            for (DroneEntity drone : group) {
+                if (!drone.isRemoved()) {
+                    drone.tickHive(context);
+                }
+            }
+            countingDrones += group.size();
+            group.clear();
+            spareLists.add(group);
+        }
+        countingSections += bySection.size();
+        bySection.clear();
+    }
+
+    private static void group(DroneEntity drone) {
+        if (!drone.takeHiveTickPending() || drone.isRemoved()) {
+            return;
+        }
+        long section = ChunkSectionPos.toLong(drone.getBlockPos());
+        List<DroneEntity> group = bySection.get(section);
+        if (group == null) {
+            group = spareLists.isEmpty() ? new ArrayList<>() : spareLists.remove(spareLists.size() - 1);
+            bySection.put(section, group);
+        }
+        group.add(drone);
+    }
+
+    /**
+     * Context for a drone ticking on its own, with batching off. Drones of the same section
+     * that tick one after another in the same tick share its lookups.
+     */
+    static DroneChunkContext contextFor(DroneEntity drone) {
+        context.moveTo((ServerWorld) drone.getWorld(), ChunkSectionPos.toLong(drone.getBlockPos()));
+        return context;
+    }
+
+    /**
+     * Publish this tick's counts; called once at the end of each server tick.
+     */
+    public static void endTick() {
+        drones = countingDrones;
+        sections = countingSections;
+        countingDrones = 0;
+        countingSections = 0;
+    }
+
+    /**
+     * Drop the buffers and the cached lookups; called when the server stops.
+     */
+    public static void clear() {
+        bySection.clear();
+        spareLists.clear();
+        context.clear();
+    }
+
+    public static String getStats() {
+        if (!isEnabled()) {
+            return "off";
+        }
+        return drones + " drones in " + sections + " chunk sections";
+    }
+}
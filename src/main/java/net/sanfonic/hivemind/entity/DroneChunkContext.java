@@ -0,0 +1,114 @@
+package net.sanfonic.hivemind.entity;
+
+import net.minecraft.entity.mob.HostileEntity;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * World lookups shared by the drones of one chunk section during a tick. Each lookup runs on
+ * first use and is reused by the other drones of the section, so a base with hundreds of drones
+ * queries the world once per section instead of once per drone. One instance is moved from
+ * section to section by {@link DroneBatchTicker}; roles must not keep it past their tick.
+ */
+public final class DroneChunkContext {
+    // Distance around the section searched for hostiles and owners
+    public static final double SEARCH_RADIUS = 16.0;
+
+    private ServerWorld world;
+    private long sectionPos;
+    private long time = Long.MIN_VALUE;
+
+    // Cached lookups of the current section and tick
+    private Box searchBox;
+    private List<HostileEntity> hostiles;
+    private final Map<UUID, ServerPlayerEntity> owners = new HashMap<>();
+
+    DroneChunkContext() {
+    }
+
+    /**
+     * Point the context at a section; cached lookups are dropped unless it is the same section
+     * of the same world in the same tick
+     */
+    void moveTo(ServerWorld world, long sectionPos) {
+        long time = world.getTime();
+        if (world == this.world && sectionPos == this.sectionPos && time == this.time) {
+            return;
+        }
+        this.world = world;
+        this.sectionPos = sectionPos;
+        this.time = time;
+        this.searchBox = null;
+        this.hostiles = null;
+        this.owners.clear();
+    }
+
+    /**
+     * Let go of the world and the cached entities
+     */
+    void clear() {
+        this.world = null;
+        this.time = Long.MIN_VALUE;
+        this.searchBox = null;
+        this.hostiles = null;
+        this.owners.clear();
+    }
+
+    public ServerWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Packed position of the section, see {@link ChunkSectionPos#asLong()}
+     */
+    public long getSectionPos() {
+        return sectionPos;
+    }
+
+    /**
+     * Hostile mobs within {@link #SEARCH_RADIUS} of the section that were alive at the first
+     * lookup of this tick; check again before acting on one
+     */
+    public List<HostileEntity> getNearbyHostiles() {
+        if (hostiles == null) {
+            hostiles = world.getEntitiesByClass(HostileEntity.class, getSearchBox(), HostileEntity::isAlive);
+        }
+        return hostiles;
+    }
+
+    /**
+     * The owner if they are online, in this world and within {@link #SEARCH_RADIUS} of the
+     * section, otherwise null
+     */
+    public ServerPlayerEntity getNearbyOwner(UUID ownerUUID) {
+        if (ownerUUID == null) {
+            return null;
+        }
+        if (owners.containsKey(ownerUUID)) {
+            return owners.get(ownerUUID);
+        }
+        ServerPlayerEntity owner = world.getServer().getPlayerManager().getPlayer(ownerUUID);
+        if (owner != null && (owner.getWorld() != world || !getSearchBox().contains(owner.getPos()))) {
+            owner = null;
+        }
+        owners.put(ownerUUID, owner);
+        return owner;
+    }
+
+    private Box getSearchBox() {
+        if (searchBox == null) {
+            int minX = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(sectionPos));
+            int minY = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(sectionPos));
+            int minZ = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(sectionPos));
+            searchBox = new Box(minX, minY, minZ, minX + 16, minY + 16, minZ + 16).expand(SEARCH_RADIUS);
+        }
+        return searchBox;
+    }
+}
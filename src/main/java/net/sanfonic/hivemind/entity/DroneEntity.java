@@ -22,9 +22,10 @@ import net.minecraft.util.Hand;
 import net.minecraft.world.World;
 import net.sanfonic.hivemind.client.DroneClientHandler;
 import net.sanfonic.hivemind.config.ModConfig;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryHistory;
+import net.sanfonic.hivemind.data.DroneData.TelemetrySource;
 import net.sanfonic.hivemind.data.HiveMindData.HiveCodeManager;
-import net.sanfonic.hivemind.data.HiveMindData.HiveMindLinkManager;
-import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
 // Deprecated: HiveMindDataManager kept as a facade; prefer new managers
 import net.sanfonic.hivemind.entity.custom.goal.FollowHiveMindPlayerGoal;
 import net.sanfonic.hivemind.entity.custom.role.DroneRole;
@@ -33,10 +34,11 @@ import net.sanfonic.hivemind.entity.custom.role.RoleRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
-public class DroneEntity extends PathAwareEntity {
+public class DroneEntity extends PathAwareEntity implements TelemetrySource {
     // Tracked data for syncing linked status to client
     private static final TrackedData<Boolean> IS_LINKED =
             DataTracker.registerData(DroneEntity.class, TrackedDataHandlerRegistry.BOOLEAN);
@@ -46,6 +48,15 @@ public class DroneEntity extends PathAwareEntity {
     private DroneRole currentRole = DroneRole.IDLE;
     private DroneRoleBehavior roleBehavior = RoleRegistry.getBehavior(DroneRole.IDLE);
     private boolean aiControlPaused = false;
+    private DroneAiLod.Tier aiTier = DroneAiLod.Tier.FULL;
+    // Dormant drones skip their AI and role ticks until an event wakes them
+    private boolean dormant = false;
+    // Age at which a woken drone checks whether to go dormant again, 0 if none is due
+    private int dormancyCheckAge = 0;
+    // Track history of the server's ledger, looked up on the first sample
+    private DroneTelemetryHistory telemetryHistory;
+    // Set when the drone ticked and DroneBatchTicker still has to run its hive tick
+    private boolean hiveTickPending = false;
     private GoalSelector savedGoals;
     private GoalSelector savedTargetGoals;
     private static final TrackedData<Float> DRONE_YAW =
@@ -126,6 +137,7 @@ public class DroneEntity extends PathAwareEntity {
 
     // Pause AI control when player takes over
     public void pauseAIControl() {
+        wake();
         if (!aiControlPaused) {
             this.aiControlPaused = true;
 
@@ -211,6 +223,11 @@ public class DroneEntity extends PathAwareEntity {
             return;
         }
 
+        // The owner saved with the entity tells us which hive shard holds this drone
+        if (this.hiveMindOwnerUuid != null) {
+            HiveLedger.getInstance(server).ensureOwnerLoaded(this.hiveMindOwnerUuid);
+        }
+
         // Use the DroneLinkUtils helper to get owner mappings
                 UUID ownerUUID = net.sanfonic.hivemind.service.DroneLinkUtils.getDroneOwner(server, this.getUuid());
                 if (ownerUUID == null) {
@@ -224,11 +241,12 @@ public class DroneEntity extends PathAwareEntity {
             // Set the owner UUID
             this.hiveMindOwnerUuid = ownerUUID;
 
-            // Update the drone's telemetry store with current position/health
-            String dimensionKey = this.getWorld().getRegistryKey().getValue().toString();
-            DroneTelemetryStore telemetry = DroneTelemetryStore.getInstance(server);
-            if (telemetry != null) {
-                telemetry.updateDroneData(
+            // Update telemetry and restore the HiveCode in one ledger commit
+            HiveLedger ledger = HiveLedger.getInstance(server);
+            ledger.batch(() -> {
+                // Update the drone's telemetry store with current position/health
+                String dimensionKey = this.getWorld().getRegistryKey().getValue().toString();
+                ledger.getTelemetryStore().updateDroneData(
                         this.getUuid(),
                         ownerUUID,
                         this.getX(),
@@ -238,24 +256,19 @@ public class DroneEntity extends PathAwareEntity {
                         this.getHealth(),
                         this.getMaxHealth()
                 );
-            }
 
-            // Restore HiveCode
-            HiveCodeManager codeManager = HiveCodeManager.getInstance(server);
-            if (codeManager != null) {
+                // Restore HiveCode
+                HiveCodeManager codeManager = ledger.getCodeManager();
                 this.hiveCode = codeManager.getHiveCode(this.getUuid());
                 if (this.hiveCode != null) {
                     log.debug("Restored HiveCode: {}", this.hiveCode);
-                    this.dataTracker.set(HIVE_CODE, this.hiveCode);
                 } else {
                     log.debug("HiveCode not found, generating new one");
                     // If no HiveCode exists, generate one
                     this.hiveCode = codeManager.generateHiveCode(this.getUuid(), ownerUUID);
-                    this.dataTracker.set(HIVE_CODE, this.hiveCode);
                 }
-            } else {
-                log.warn("HiveCodeManager is null");
-            }
+                this.dataTracker.set(HIVE_CODE, this.hiveCode);
+            });
 
             // Update tracked data - try to get player name from server
             PlayerEntity owner = this.getWorld().getPlayerByUuid(ownerUUID);
@@ -315,25 +328,29 @@ public class DroneEntity extends PathAwareEntity {
     /**
      * Gets the current HiveMind owner UUID
      */
+    @Override
     public UUID getHiveMindOwnerUuid() {
         return this.hiveMindOwnerUuid;
     }
 
+    // Dimension key as stored in drone telemetry
+    @Override
+    public String getTelemetryDimension() {
+        return this.getWorld().getRegistryKey().getValue().toString();
+    }
+
     // Remove HiveMind connection
     public void removeHiveMindConnection() {
         if (!this.getWorld().isClient) {
             MinecraftServer server = this.getWorld().getServer();
             if (server != null) {
-                HiveMindLinkManager linkManager = HiveMindLinkManager.getInstance(server);
-                if (linkManager != null) {
-                    linkManager.unlinkDrone(this.getUuid());
-                }
-
-                // NEW: Remove HiveCode
-                HiveCodeManager codeManager = HiveCodeManager.getInstance(server);
-                if (codeManager != null) {
-                    codeManager.removeHiveCode(this.getUuid());
-                }
+                HiveLedger ledger = HiveLedger.getInstance(server);
+                ledger.ensureOwnerLoaded(this.hiveMindOwnerUuid);
+                ledger.batch(() -> {
+                    ledger.getLinkManager().unlinkDrone(this.getUuid());
+                    // NEW: Remove HiveCode
+                    ledger.getCodeManager().removeHiveCode(this.getUuid());
+                });
             }
         }
 
@@ -341,6 +358,7 @@ public class DroneEntity extends PathAwareEntity {
         this.hiveCode = null;
         this.dataTracker.set(HIVE_CODE, "");
         updateTrackedData(null);
+        wake();
     }
 
     // Validates a UUID to ensure it's not null and properly formatted
@@ -406,6 +424,7 @@ public class DroneEntity extends PathAwareEntity {
 
         // Apply new behavior
         applyRoleBehavior();
+        wake();
 
         // Debug log
         if (!this.getWorld().isClient) {
@@ -533,6 +552,7 @@ public class DroneEntity extends PathAwareEntity {
             PlayerEntity owner = this.getWorld().getPlayerByUuid(ownerUUID);
             updateTrackedData(owner);
         }
+        wake();
     }
 
     // Override setYaw to sync to clients
@@ -638,7 +658,68 @@ public class DroneEntity extends PathAwareEntity {
 
     @Override
     public boolean damage(DamageSource source, float amount) {
-        return super.damage(source, amount);
+        boolean damaged = super.damage(source, amount);
+        if (damaged && this.getWorld() instanceof ServerWorld serverWorld) {
+            wake();
+            wakeHiveNeighbours(serverWorld);
+        }
+        return damaged;
+    }
+
+    public boolean isDormant() {
+        return this.dormant;
+    }
+
+    /**
+     * Go dormant if the owner is offline, or if the drone is unlinked and IDLE; wake otherwise.
+     * Called on the events that can change this, never polled.
+     */
+    public void updateDormancy() {
+        if (this.getWorld().isClient) {
+            return;
+        }
+        boolean shouldSleep = !this.aiControlPaused && (this.hiveMindOwnerUuid != null
+                ? getHiveMindOwnerPlayer() == null
+                : this.currentRole == DroneRole.IDLE);
+        if (!shouldSleep) {
+            this.dormant = false;
+        } else if (!this.dormant) {
+            this.dormant = true;
+            this.dormancyCheckAge = 0;
+            // Drop whatever the drone was doing; goals pick up fresh once it wakes
+            this.getNavigation().stop();
+            this.setTarget(null);
+            this.goalSelector.getRunningGoals().forEach(PrioritizedGoal::stop);
+            this.targetSelector.getRunningGoals().forEach(PrioritizedGoal::stop);
+        }
+    }
+
+    /**
+     * Wake the drone for a while (damage, a command, its owner joining); once
+     * dormancyWakeTicks have passed it checks whether it should go dormant again.
+     */
+    public void wake() {
+        if (this.getWorld().isClient) {
+            return;
+        }
+        this.dormant = false;
+        this.dormancyCheckAge = this.age + Math.max(1, ModConfig.getInstance().dormancyWakeTicks);
+    }
+
+    // A drone under attack wakes the drones of its hive around it
+    private void wakeHiveNeighbours(ServerWorld world) {
+        if (this.hiveMindOwnerUuid == null) {
+            return;
+        }
+        double radius = ModConfig.getInstance().dormancyWakeRadius;
+        List<UUID> neighbours = HiveLedger.getInstance(world.getServer()).getTelemetryStore().getDronesInRadius(
+                getTelemetryDimension(), this.getX(), this.getY(), this.getZ(), radius, this.hiveMindOwnerUuid);
+        for (UUID droneUUID : neighbours) {
+            DroneEntity neighbour = DroneRegistry.get(world, droneUUID);
+            if (neighbour != null && neighbour != this) {
+                neighbour.wake();
+            }
+        }
     }
 
     @Override
@@ -718,14 +799,7 @@ public class DroneEntity extends PathAwareEntity {
             if (isValidUUID(loadedUuid)) {
                 this.hiveMindOwnerUuid = loadedUuid;
                 log.debug("Loaded owner UUID from NBT: {}", loadedUuid);
-
-                // Restore connection immediately when NBT is loaded
-                if (!this.getWorld().isClient && this.getWorld().getServer() != null) {
-                    // Schedule restoration for next tick to ensure server is ready
-                    this.getWorld().getServer().execute(() -> {
-                        restoreHiveMindConnection();
-                    });
-                }
+                // The connection is restored once the entity has loaded, see HiveMindServerEvents
             }
         }
 
@@ -753,7 +827,33 @@ public class DroneEntity extends PathAwareEntity {
             return;
         }
 
-        if (!aiControlPaused) {
+        if (this.dormancyCheckAge != 0 && this.age >= this.dormancyCheckAge) {
+            this.dormancyCheckAge = 0;
+            updateDormancy();
+        }
+
+        if (DroneBatchTicker.isEnabled()) {
+            // DroneBatchTicker runs the rest with the drones of the same chunk section
+            this.hiveTickPending = true;
+        } else {
+            tickHive(DroneBatchTicker.contextFor(this));
+        }
+    }
+
+    /**
+     * Whether the drone ticked since the last batched pass; clears the flag
+     */
+    boolean takeHiveTickPending() {
+        boolean pending = this.hiveTickPending;
+        this.hiveTickPending = false;
+        return pending;
+    }
+
+    /**
+     * AI, hive bookkeeping and role logic of a server tick, after the vanilla entity tick
+     */
+    void tickHive(DroneChunkContext context) {
+        if (!aiControlPaused && !this.dormant) {
             runAITick();
         }
 
@@ -769,11 +869,30 @@ public class DroneEntity extends PathAwareEntity {
                 this.previousOwnerUuid = this.hiveMindOwnerUuid;
                 this.lastLogTime = System.currentTimeMillis();
             }
+
+            sampleTelemetryHistory();
         }
 
         // Role Specific tick behavior
-        if (this.roleBehavior != null) {
-            this.roleBehavior.tick(this);
+        if (this.roleBehavior != null && !this.dormant) {
+            this.roleBehavior.tick(this, context);
+        }
+    }
+
+    // Add a sample to this drone's track; drones are staggered by entity id
+    private void sampleTelemetryHistory() {
+        if (this.telemetryHistory == null) {
+            MinecraftServer server = this.getWorld().getServer();
+            if (server == null) {
+                return;
+            }
+            this.telemetryHistory = HiveLedger.getInstance(server).getTelemetryHistory();
+        }
+        DroneTelemetryHistory history = this.telemetryHistory;
+        int interval = history.getSampleInterval();
+        if (interval > 0 && (this.age + this.getId()) % interval == 0) {
+            history.record(this.getUuid(), this.getWorld().getTime(), this.getX(), this.getY(), this.getZ(),
+                    this.getHealth());
         }
     }
 
@@ -793,6 +912,59 @@ public class DroneEntity extends PathAwareEntity {
         }
     }
 
+    /**
+     * AI level of detail, run by MobEntityMixin in place of the start of the vanilla AI tick.
+     * Away from players, goal selection runs every few ticks or not at all, while navigation and
+     * the move, look and jump controls keep the drone on its current path.
+     *
+     * @return true if the vanilla AI tick should be skipped this tick
+     */
+    public boolean tickReducedAi() {
+        if (this.dormant) {
+            DroneAiLod.record(DroneAiLod.Tier.DORMANT);
+            return true;
+        }
+        ModConfig config = ModConfig.getInstance();
+        int phase = this.age + this.getId();
+        if (phase % DroneAiLod.RECHECK_TICKS == 0) {
+            this.aiTier = computeAiTier(config);
+        }
+        DroneAiLod.record(this.aiTier);
+
+        switch (this.aiTier) {
+            case FULL -> {
+                return false;
+            }
+            case REDUCED -> {
+                if (phase % Math.max(1, config.aiLodGoalInterval) == 0) {
+                    return false;
+                }
+                // Keep running goals going without picking new ones
+                this.getVisibilityCache().clear();
+                this.targetSelector.tickGoals(false);
+                this.goalSelector.tickGoals(false);
+            }
+            case MOVEMENT_ONLY, DORMANT -> {
+            }
+        }
+        this.getNavigation().tick();
+        this.mobTick();
+        this.getMoveControl().tick();
+        this.getLookControl().tick();
+        this.getJumpControl().tick();
+        return true;
+    }
+
+    private DroneAiLod.Tier computeAiTier(ModConfig config) {
+        // A possessed drone has no goals, and needs its full movement
+        if (this.aiControlPaused) {
+            return DroneAiLod.Tier.FULL;
+        }
+        PlayerEntity nearest = this.getWorld().getClosestPlayer(this, config.aiLodReducedDistance);
+        return DroneAiLod.tierFor(nearest != null ? this.distanceTo(nearest) : -1,
+                config.aiLodFullDistance, config.aiLodReducedDistance);
+    }
+
     // Fabric-specific: Override canBreaththeUnderwater for flying drones
     @Override
     public boolean canBreatheInWater() {
@@ -0,0 +1,152 @@
+package net.sanfonic.hivemind.entity;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
+import net.sanfonic.hivemind.data.collection.UuidMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Every loaded drone on the server, by UUID, by network id and by world. Kept current
+ * from the entity load and unload events, so lookups never walk entity sections. Owner and
+ * HiveCode lookups go through the ledger's indexes, which follow links and codes as they
+ * change, and resolve the resulting UUIDs here.
+ */
+public final class DroneRegistry {
+    private static final UuidMap<DroneEntity> byUuid = new UuidMap<>();
+    private static final Int2ObjectOpenHashMap<DroneEntity> byNetworkId = new Int2ObjectOpenHashMap<>();
+    // The same drones per world they were loaded in
+    private static final Map<World, UuidMap<DroneEntity>> byWorld = new HashMap<>();
+
+    private DroneRegistry() {
+    }
+
+    /**
+     * Register a drone that loaded; replaces an earlier instance with the same UUID.
+     */
+    public static void add(DroneEntity drone) {
+        DroneEntity previous = byUuid.put(drone.getUuid(), drone);
+        if (previous != null && previous != drone) {
+            byNetworkId.remove(previous.getId());
+            removeFromWorld(previous);
+        }
+        byNetworkId.put(drone.getId(), drone);
+        byWorld.computeIfAbsent(drone.getWorld(), world -> new UuidMap<>()).put(drone.getUuid(), drone);
+    }
+
+    /**
+     * Forget a drone that unloaded. Ignored if another instance with the same UUID took its
+     * place (a drone changing dimension is replaced by a copy).
+     */
+    public static void remove(DroneEntity drone) {
+        byNetworkId.remove(drone.getId(), drone);
+        if (byUuid.get(drone.getUuid()) == drone) {
+            byUuid.remove(drone.getUuid());
+        }
+        removeFromWorld(drone);
+    }
+
+    private static void removeFromWorld(DroneEntity drone) {
+        UuidMap<DroneEntity> drones = byWorld.get(drone.getWorld());
+        if (drones != null && drones.get(drone.getUuid()) == drone) {
+            drones.remove(drone.getUuid());
+        }
+    }
+
+    public static void clear() {
+        byUuid.clear();
+        byNetworkId.clear();
+        byWorld.clear();
+    }
+
+    public static DroneEntity get(UUID droneUUID) {
+        return byUuid.get(droneUUID);
+    }
+
+    public static DroneEntity get(int networkId) {
+        return byNetworkId.get(networkId);
+    }
+
+    /**
+     * A loaded drone in the given world, or null
+     */
+    public static DroneEntity get(ServerWorld world, UUID droneUUID) {
+        DroneEntity drone = byUuid.get(droneUUID);
+        return drone != null && drone.getWorld() == world ? drone : null;
+    }
+
+    /**
+     * A loaded drone in the given world by network id, or null
+     */
+    public static DroneEntity get(ServerWorld world, int networkId) {
+        DroneEntity drone = byNetworkId.get(networkId);
+        return drone != null && drone.getWorld() == world ? drone : null;
+    }
+
+    /**
+     * The owner's loaded drones, in any world
+     */
+    public static List<DroneEntity> getOwnerDrones(MinecraftServer server, UUID ownerUUID) {
+        List<DroneEntity> drones = new ArrayList<>();
+        for (UUID droneUUID : HiveLedger.getInstance(server).getLinkManager().getOwnerDrones(ownerUUID)) {
+            DroneEntity drone = byUuid.get(droneUUID);
+            if (drone != null) {
+                drones.add(drone);
+            }
+        }
+        return drones;
+    }
+
+    /**
+     * The owner's drone with the given HiveCode, or null if it isn't loaded
+     */
+    public static DroneEntity getByHiveCode(MinecraftServer server, UUID ownerUUID, String hiveCode) {
+        UUID droneUUID = HiveLedger.getInstance(server).getCodeManager().getDroneFromCode(hiveCode, ownerUUID);
+        return droneUUID != null ? byUuid.get(droneUUID) : null;
+    }
+
+    /**
+     * Run the action for each loaded drone, in any world
+     */
+    public static void forEach(Consumer<DroneEntity> action) {
+        byUuid.forEachValue(action);
+    }
+
+    /**
+     * Run the action for each loaded drone in a world
+     */
+    public static void forEach(ServerWorld world, Consumer<DroneEntity> action) {
+        UuidMap<DroneEntity> drones = byWorld.get(world);
+        if (drones != null) {
+            drones.forEachValue(action);
+        }
+    }
+
+    /**
+     * Loaded drones in a world within the given distance of an entity. Returns a copy, so the
+     * drones can be removed while going through it.
+     */
+    public static List<DroneEntity> getDronesNear(ServerWorld world, Entity center, double radius) {
+        List<DroneEntity> drones = new ArrayList<>();
+        double maxDistanceSquared = radius * radius;
+        forEach(world, drone -> {
+            if (drone.squaredDistanceTo(center) <= maxDistanceSquared) {
+                drones.add(drone);
+            }
+        });
+        return drones;
+    }
+
+    public static int size() {
+        return byUuid.size();
+    }
+}
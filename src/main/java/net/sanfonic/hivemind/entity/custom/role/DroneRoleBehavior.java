@@ -1,5 +1,6 @@
 package net.sanfonic.hivemind.entity.custom.role;
 
+import net.sanfonic.hivemind.entity.DroneChunkContext;
 import net.sanfonic.hivemind.entity.DroneEntity;
 
 public interface DroneRoleBehavior {
@@ -17,6 +18,14 @@ public interface DroneRoleBehavior {
         // Default: no per-tick behavior
     }
 
+    /**
+     * Called every tick with lookups shared by the drones of the same chunk section
+     * Prefer the context over querying the world when the role needs nearby entities
+     */
+    default void tick(DroneEntity drone, DroneChunkContext context) {
+        tick(drone);
+    }
+
     void onRoleAssigned(DroneEntity drone);
 
     // Called when the role is removed or changed
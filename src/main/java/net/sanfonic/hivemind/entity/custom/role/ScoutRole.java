@@ -2,7 +2,11 @@ package net.sanfonic.hivemind.entity.custom.role;
 
 import net.minecraft.entity.ai.goal.WanderAroundFarGoal;
 import net.minecraft.entity.ai.goal.LookAtEntityGoal;
+import net.minecraft.entity.effect.StatusEffectInstance;
+import net.minecraft.entity.effect.StatusEffects;
+import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.entity.player.PlayerEntity;
+import net.sanfonic.hivemind.entity.DroneChunkContext;
 import net.sanfonic.hivemind.entity.DroneEntity;
 import net.sanfonic.hivemind.entity.custom.role.DroneRole;
 import net.sanfonic.hivemind.entity.custom.role.DroneRoleBehavior;
@@ -11,6 +15,9 @@ public class ScoutRole implements DroneRoleBehavior {
     // Constants for better code readability
     private static final boolean REGULAR_GOAL = false;
     private static final boolean TARGET_GOAL = true;
+    // Spotted hostiles glow for a few seconds, refreshed every second while the scout sees them
+    private static final int SPOT_INTERVAL = 20;
+    private static final int SPOT_DURATION = 60;
 
     private LookAtEntityGoal lookAtPlayerGoal;
 
@@ -37,13 +44,21 @@ public class ScoutRole implements DroneRoleBehavior {
     }
 
     @Override
-    public void tick(DroneEntity drone) {
-        // Scout-specific logic that runs every tick
-        // For example: check for new areas, reporting discoveries, etc.
+    public void tick(DroneEntity drone, DroneChunkContext context) {
+        // Spot hostiles around the chunk section for the owner while they are close
         // Could also include things like:
-        // - Scanning for enemies or items
         // - Reporting back to hive mind
         // - Path finding and exploration
+        if (drone.age % SPOT_INTERVAL != 0
+                || context.getNearbyOwner(drone.getHiveMindOwnerUuid()) == null) {
+            return;
+        }
+        for (HostileEntity hostile : context.getNearbyHostiles()) {
+            StatusEffectInstance glowing = hostile.getStatusEffect(StatusEffects.GLOWING);
+            if (hostile.isAlive() && (glowing == null || glowing.getDuration() < SPOT_INTERVAL)) {
+                hostile.addStatusEffect(new StatusEffectInstance(StatusEffects.GLOWING, SPOT_DURATION), drone);
+            }
+        }
     }
 
     @Override
@@ -1,8 +1,11 @@
 package net.sanfonic.hivemind.entity.custom.role;
 
+import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.ai.goal.Goal;
 import net.minecraft.entity.ai.goal.MeleeAttackGoal;
 import net.minecraft.entity.ai.goal.RevengeGoal;
+import net.minecraft.entity.mob.HostileEntity;
+import net.sanfonic.hivemind.entity.DroneChunkContext;
 import net.sanfonic.hivemind.entity.DroneEntity;
 import net.sanfonic.hivemind.entity.custom.role.DroneRole;
 import net.sanfonic.hivemind.entity.custom.role.DroneRoleBehavior;
@@ -11,6 +14,8 @@ public class SoldierRole implements DroneRoleBehavior {
     // Constants for better code readability
     private static final boolean REGULAR_GOAL = false;
     private static final boolean TARGET_GOAL = true;
+    // Distance at which soldiers pick a fight on their own
+    private static final double ENGAGE_RANGE = DroneChunkContext.SEARCH_RADIUS;
 
     private MeleeAttackGoal meleeAttackGoal;
     private RevengeGoal revengeGoal;
@@ -41,12 +46,31 @@ public class SoldierRole implements DroneRoleBehavior {
     }
 
     @Override
-    public void tick(DroneEntity drone) {
-        // Soldier-specific logic that runs every tick
-        // This could include things like:
-        // - Checking for nearby threats
+    public void tick(DroneEntity drone, DroneChunkContext context) {
+        // Engage the nearest hostile around the chunk section when not already fighting
+        // Could also include things like:
         // - Adjusting combat behavior based on health
         // - Coordinating with other soldier drones
+        if (drone.isAiControlPaused()) {
+            return;
+        }
+        LivingEntity target = drone.getTarget();
+        if (target != null && target.isAlive()) {
+            return;
+        }
+
+        HostileEntity nearest = null;
+        double nearestDistance = ENGAGE_RANGE * ENGAGE_RANGE;
+        for (HostileEntity hostile : context.getNearbyHostiles()) {
+            double distance = drone.squaredDistanceTo(hostile);
+            if (distance < nearestDistance && hostile.isAlive() && drone.canTarget(hostile)) {
+                nearest = hostile;
+                nearestDistance = distance;
+            }
+        }
+        if (nearest != null) {
+            drone.setTarget(nearest);
+        }
     }
 
     @Override
@@ -0,0 +1,19 @@
+package net.sanfonic.hivemind.mixin;
+
+import net.minecraft.entity.mob.MobEntity;
+import net.sanfonic.hivemind.entity.DroneEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(MobEntity.class)
+public abstract class MobEntityMixin {
+	// tickNewAi is final, so drones hook their AI level of detail in here
+	@Inject(at = @At("HEAD"), method = "tickNewAi", cancellable = true)
+	private void hivemind$droneAiLod(CallbackInfo info) {
+		if ((Object) this instanceof DroneEntity drone && drone.tickReducedAi()) {
+			info.cancel();
+		}
+	}
+}
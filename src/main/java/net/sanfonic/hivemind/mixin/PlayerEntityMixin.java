@@ -0,0 +1,41 @@
+package net.sanfonic.hivemind.mixin;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.sanfonic.hivemind.data.HiveMindData.HivePlayerData;
+import net.sanfonic.hivemind.data.HiveMindData.HivePlayerDataHolder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(PlayerEntity.class)
+public abstract class PlayerEntityMixin implements HivePlayerDataHolder {
+	// Custom NBT root key for our mod data
+	@Unique
+	private static final String NBT_ROOT = "hivemind";
+
+	@Unique
+	private final HivePlayerData hivemind$data = new HivePlayerData();
+
+	@Override
+	public HivePlayerData hivemind$getHiveData() {
+		return hivemind$data;
+	}
+
+	@Inject(at = @At("TAIL"), method = "writeCustomDataToNbt")
+	private void hivemind$writeHiveData(NbtCompound nbt, CallbackInfo info) {
+		NbtCompound hiveNbt = new NbtCompound();
+		hivemind$data.writeNbt(hiveNbt);
+		nbt.put(NBT_ROOT, hiveNbt);
+	}
+
+	@Inject(at = @At("TAIL"), method = "readCustomDataFromNbt")
+	private void hivemind$readHiveData(NbtCompound nbt, CallbackInfo info) {
+		if (nbt.contains(NBT_ROOT, NbtElement.COMPOUND_TYPE)) {
+			hivemind$data.readNbt(nbt.getCompound(NBT_ROOT));
+		}
+	}
+}
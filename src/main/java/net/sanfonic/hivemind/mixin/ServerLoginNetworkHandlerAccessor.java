@@ -0,0 +1,13 @@
+package net.sanfonic.hivemind.mixin;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.server.network.ServerLoginNetworkHandler;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(ServerLoginNetworkHandler.class)
+public interface ServerLoginNetworkHandlerAccessor {
+	// Profile of the connecting player; null until the hello packet was handled
+	@Accessor("profile")
+	GameProfile getProfile();
+}
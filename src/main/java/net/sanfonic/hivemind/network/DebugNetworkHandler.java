@@ -12,6 +12,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.sanfonic.hivemind.config.ModConfig;
 import net.sanfonic.hivemind.entity.DroneEntity;
+import net.sanfonic.hivemind.entity.DroneRegistry;
 import net.sanfonic.hivemind.entity.ModEntities;
 
 import java.util.Comparator;
@@ -109,11 +110,7 @@ public class DebugNetworkHandler {
 
         ServerWorld world = player.getServerWorld();
 
-        List<DroneEntity> drones = world.getEntitiesByClass(
-                DroneEntity.class,
-                player.getBoundingBox().expand(radius),
-                drone -> true
-        );
+        List<DroneEntity> drones = DroneRegistry.getDronesNear(world, player, radius);
 
         int killed = 0;
         for (DroneEntity drone : drones) {
@@ -140,11 +137,7 @@ public class DebugNetworkHandler {
 
         ServerWorld world = player.getServerWorld();
 
-        DroneEntity nearestDrone = world.getEntitiesByClass(
-                        DroneEntity.class,
-                        player.getBoundingBox().expand(100),
-                        drone -> true
-                ).stream()
+        DroneEntity nearestDrone = DroneRegistry.getDronesNear(world, player, 100).stream()
                 .min(Comparator.comparingDouble(player::distanceTo))
                 .orElse(null);
 
@@ -4,6 +4,7 @@ import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.sanfonic.hivemind.control.DroneControlManager;
 import net.sanfonic.hivemind.entity.DroneEntity;
+import net.sanfonic.hivemind.entity.DroneRegistry;
 
 public class DroneControlPacket {
     private final Integer droneId;
@@ -49,13 +50,12 @@ public class DroneControlPacket {
     }
 
     private DroneEntity findDroneById(ServerPlayerEntity player, int droneId) {
-        // Search for the drone in the player's world by ID
-        return player.getWorld().getEntitiesByClass(DroneEntity.class,
-                player.getBoundingBox().expand(100.0),
-                drone -> drone.getId() == droneId)
-                .stream()
-                .findFirst()
-                .orElse(null);
+        // Network IDs only exist for loaded entities, which the registry holds
+        DroneEntity drone = DroneRegistry.get(player.getServerWorld(), droneId);
+        if (drone != null && player.squaredDistanceTo(drone) <= 100.0 * 100.0) {
+            return drone;
+        }
+        return null;
     }
 
     // Getters for accessing packet data
@@ -3,6 +3,7 @@ package net.sanfonic.hivemind.service;
 import net.minecraft.server.MinecraftServer;
 import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
 import net.sanfonic.hivemind.data.HiveMindData.HiveCodeManager;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
 import net.sanfonic.hivemind.data.HiveMindData.HiveMindLinkManager;
 
 import java.util.UUID;
@@ -23,22 +24,15 @@ public final class DroneLinkUtils {
                                    double health, double maxHealth) {
         if (server == null) return null;
 
-        HiveMindLinkManager linkManager = HiveMindServiceManager.get().getLinkManager(server);
-        if (linkManager != null) {
-            linkManager.linkDroneToOwner(droneUuid, ownerUuid);
-
-            DroneTelemetryStore telemetry = HiveMindServiceManager.get().getTelemetryStore(server);
-            if (telemetry != null) {
-                telemetry.updateDroneData(droneUuid, ownerUuid, x, y, z, dimensionKey, health, maxHealth);
-            }
-        }
-
-        HiveCodeManager codeManager = HiveMindServiceManager.get().getHiveCodeManager(server);
-        if (codeManager != null) {
-            return codeManager.generateHiveCode(droneUuid, ownerUuid);
-        }
+        return linkInLedger(HiveMindServiceManager.get(), server, droneUuid, ownerUuid,
+                x, y, z, dimensionKey, health, maxHealth);
+    }
 
-        return null;
+    public static UUID getDroneOwner(MinecraftServer server, UUID droneUuid) {
+        if (server == null) return null;
+        HiveMindLinkManager linkManager = HiveMindServiceManager.get().getLinkManager(server);
+        if (linkManager == null) return null;
+        return linkManager.getDroneOwner(droneUuid);
     }
 
     // Test-friendly counterparts that accept an explicit HiveMindService to avoid mocking MinecraftServer
@@ -47,16 +41,38 @@ public final class DroneLinkUtils {
                                               double health, double maxHealth) {
         if (service == null) return null;
 
-        HiveMindLinkManager linkManager = service.getLinkManager(null);
+        return linkInLedger(service, null, droneUuid, ownerUuid,
+                x, y, z, dimensionKey, health, maxHealth);
+    }
+
+    private static String linkInLedger(HiveMindService service, MinecraftServer server,
+                                       UUID droneUuid, UUID ownerUuid,
+                                       double x, double y, double z, String dimensionKey,
+                                       double health, double maxHealth) {
+        HiveLedger ledger = service.getLedger(server);
+        if (ledger == null) {
+            return applyLink(service, server, droneUuid, ownerUuid, x, y, z, dimensionKey, health, maxHealth);
+        }
+        // One ledger commit for the link, telemetry and code changes
+        return ledger.batch(() -> applyLink(service, server, droneUuid, ownerUuid,
+                x, y, z, dimensionKey, health, maxHealth));
+    }
+
+    private static String applyLink(HiveMindService service, MinecraftServer server,
+                                    UUID droneUuid, UUID ownerUuid,
+                                    double x, double y, double z, String dimensionKey,
+                                    double health, double maxHealth) {
+        HiveMindLinkManager linkManager = service.getLinkManager(server);
         if (linkManager != null) {
             linkManager.linkDroneToOwner(droneUuid, ownerUuid);
-            DroneTelemetryStore telemetry = service.getTelemetryStore(null);
+
+            DroneTelemetryStore telemetry = service.getTelemetryStore(server);
             if (telemetry != null) {
                 telemetry.updateDroneData(droneUuid, ownerUuid, x, y, z, dimensionKey, health, maxHealth);
             }
         }
 
-        HiveCodeManager codeManager = service.getHiveCodeManager(null);
+        HiveCodeManager codeManager = service.getHiveCodeManager(server);
         if (codeManager != null) {
             return codeManager.generateHiveCode(droneUuid, ownerUuid);
         }
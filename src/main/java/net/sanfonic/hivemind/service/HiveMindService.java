@@ -3,6 +3,7 @@ package net.sanfonic.hivemind.service;
 import net.minecraft.server.MinecraftServer;
 import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
 import net.sanfonic.hivemind.data.HiveMindData.HiveCodeManager;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
 import net.sanfonic.hivemind.data.HiveMindData.HiveMindLinkManager;
 
 /**
@@ -13,4 +14,12 @@ public interface HiveMindService {
     HiveMindLinkManager getLinkManager(MinecraftServer server);
     DroneTelemetryStore getTelemetryStore(MinecraftServer server);
     HiveCodeManager getHiveCodeManager(MinecraftServer server);
+
+    /**
+     * Ledger persisting the managers above. May be null, in which case
+     * callers apply mutations without batching.
+     */
+    default HiveLedger getLedger(MinecraftServer server) {
+        return null;
+    }
 }
@@ -3,6 +3,7 @@ package net.sanfonic.hivemind.service;
 import net.minecraft.server.MinecraftServer;
 import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
 import net.sanfonic.hivemind.data.HiveMindData.HiveCodeManager;
+import net.sanfonic.hivemind.data.HiveMindData.HiveLedger;
 import net.sanfonic.hivemind.data.HiveMindData.HiveMindLinkManager;
 
 /**
@@ -33,4 +34,9 @@ public class HiveMindServiceManager implements HiveMindService {
     public HiveCodeManager getHiveCodeManager(MinecraftServer server) {
         return HiveCodeManager.getInstance(server);
     }
+
+    @Override
+    public HiveLedger getLedger(MinecraftServer server) {
+        return HiveLedger.getInstance(server);
+    }
 }
@@ -0,0 +1,62 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DroneTelemetryHistoryTest {
+
+    @Test
+    public void testParseTiers() {
+        List<DroneTelemetryHistory.Tier> tiers = DroneTelemetryHistory.parseTiers("1s:5m,30s:6h");
+        assertEquals(List.of(new DroneTelemetryHistory.Tier(20, 300), new DroneTelemetryHistory.Tier(600, 720)), tiers);
+        assertTrue(DroneTelemetryHistory.parseTiers("").isEmpty());
+        // Not getting coarser falls back to the defaults
+        assertEquals(tiers, DroneTelemetryHistory.parseTiers("30s:6h,1s:5m"));
+    }
+
+    @Test
+    public void testTiersDownsampleAndStayBounded() {
+        // A sample every 10 ticks for 100 ticks, every 50 ticks for 1000 ticks
+        DroneTelemetryHistory history = new DroneTelemetryHistory(DroneTelemetryHistory.parseTiers("10t:100t,50t:1000t"));
+        UUID drone = UUID.randomUUID();
+        for (long tick = 0; tick < 2000; tick += 10) {
+            float health = tick == 1020 ? 3.0f : 20.0f;
+            history.record(drone, tick, tick, 64, 0, health);
+        }
+
+        List<DroneTelemetryHistory.Sample> track = history.getTrack(drone, 0, Long.MAX_VALUE);
+        // The fine tier holds the last 10 samples, the coarse tier fills in back to tick 1000
+        assertEquals(1900, track.get(track.size() - 10).tick());
+        assertEquals(1850, track.get(track.size() - 11).tick());
+        assertEquals(28, track.size());
+        assertEquals(1000, track.get(0).tick());
+        for (int i = 1; i < track.size(); i++) {
+            assertTrue(track.get(i).tick() > track.get(i - 1).tick());
+        }
+
+        // The coarse sample after the damage keeps the lowest health
+        DroneTelemetryHistory.Sample afterDamage = history.getTrack(drone, 1050, 1050).get(0);
+        assertEquals(3.0f, afterDamage.health());
+        assertEquals(1050.0, afterDamage.x());
+
+        assertEquals(2, history.getTrack(drone, 1950, 1960).size());
+        assertTrue(history.getTrack(UUID.randomUUID(), 0, 100).isEmpty());
+    }
+
+    @Test
+    public void testPruneDropsSilentDrones() {
+        DroneTelemetryHistory history = new DroneTelemetryHistory(DroneTelemetryHistory.parseTiers("10t:100t,50t:1000t"));
+        UUID silent = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        history.record(silent, 0, 0, 0, 0, 20);
+        history.record(active, 1500, 0, 0, 0, 20);
+
+        history.prune(1500);
+        assertEquals(1, history.getTrackedDroneCount());
+        assertTrue(history.getTrack(silent, 0, 2000).isEmpty());
+    }
+}
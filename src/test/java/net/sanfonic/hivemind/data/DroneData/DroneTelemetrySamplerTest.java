@@ -0,0 +1,129 @@
+package net.sanfonic.hivemind.data.DroneData;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DroneTelemetrySamplerTest {
+
+    private static class FakeDrone implements TelemetrySource {
+        final UUID uuid = UUID.randomUUID();
+        UUID owner;
+        double x, y = 64, z;
+        String dimension = "minecraft:overworld";
+        float health = 40;
+
+        FakeDrone(UUID owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        @Override
+        public UUID getHiveMindOwnerUuid() {
+            return owner;
+        }
+
+        @Override
+        public double getX() {
+            return x;
+        }
+
+        @Override
+        public double getY() {
+            return y;
+        }
+
+        @Override
+        public double getZ() {
+            return z;
+        }
+
+        @Override
+        public String getTelemetryDimension() {
+            return dimension;
+        }
+
+        @Override
+        public float getHealth() {
+            return health;
+        }
+
+        @Override
+        public float getMaxHealth() {
+            return 40;
+        }
+    }
+
+    @Test
+    public void testWritesOnlyOnChange() {
+        DroneTelemetryStore store = new DroneTelemetryStore();
+        DroneTelemetrySampler sampler = new DroneTelemetrySampler(1, 10, 1.0, 1.0);
+        FakeDrone drone = new FakeDrone(UUID.randomUUID());
+        sampler.add(drone);
+
+        sampler.tick(store);
+        assertEquals(1, sampler.getWriteCount());
+
+        // Small moves and scratches stay below the thresholds
+        drone.x = 0.5;
+        drone.health = 39.5f;
+        sampler.tick(store);
+        assertEquals(0.0, store.getDroneData(drone.uuid).x);
+
+        drone.x = 1.5;
+        sampler.tick(store);
+        assertEquals(1.5, store.getDroneData(drone.uuid).x);
+
+        drone.dimension = "minecraft:the_nether";
+        sampler.tick(store);
+        assertEquals("minecraft:the_nether", store.getDroneData(drone.uuid).dimensionKey);
+
+        // Unlinked drones aren't sampled
+        drone.owner = null;
+        sampler.tick(store);
+        assertEquals(4, sampler.getSampleCount());
+        assertEquals(3, sampler.getWriteCount());
+        assertEquals(0.75, sampler.getWriteRatio());
+    }
+
+    @Test
+    public void testSlicesAreBoundedPerTick() {
+        DroneTelemetryStore store = new DroneTelemetryStore();
+        DroneTelemetrySampler sampler = new DroneTelemetrySampler(10, 3, 1.0, 1.0);
+        UUID owner = UUID.randomUUID();
+        List<FakeDrone> drones = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            FakeDrone drone = new FakeDrone(owner);
+            drones.add(drone);
+            sampler.add(drone);
+        }
+
+        // 50 drones over 10 ticks would be 5 a tick; the cap keeps it at 3
+        sampler.tick(store);
+        assertEquals(3, sampler.getSampleCount());
+        for (int tick = 1; tick < 17; tick++) {
+            sampler.tick(store);
+        }
+        assertEquals(50, store.getTrackedDrones().size());
+
+        sampler.remove(drones.get(0));
+        // A newer instance with the same UUID isn't removed by the old one
+        FakeDrone stale = drones.get(1);
+        sampler.add(new FakeDrone(owner) {
+            @Override
+            public UUID getUuid() {
+                return stale.uuid;
+            }
+        });
+        sampler.remove(stale);
+        assertEquals(49, sampler.getLoadedDroneCount());
+    }
+}
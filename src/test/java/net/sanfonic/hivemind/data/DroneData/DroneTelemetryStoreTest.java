@@ -2,14 +2,25 @@ package net.sanfonic.hivemind.data.DroneData;
 
 import net.minecraft.nbt.NbtCompound;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DroneTelemetryStoreTest {
 
+    @TempDir
+    Path dataDir;
+
     @Test
     public void testUpdateAndPersistence() {
         DroneTelemetryStore store = new DroneTelemetryStore();
@@ -32,4 +43,131 @@ public class DroneTelemetryStoreTest {
         loaded.cleanupNonExistentDrones(java.util.List.of());
         assertTrue(loaded.getAllDroneData().isEmpty());
     }
+
+    @Test
+    public void testSlotsAreReusedAndScanned() {
+        DroneTelemetryStore store = new DroneTelemetryStore();
+        UUID owner = UUID.randomUUID();
+        UUID otherOwner = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        store.updateDroneData(first, owner, 0, 64, 0, "minecraft:overworld", 10.0, 20.0);
+        store.updateDroneData(second, owner, 5, 64, 5, "minecraft:the_nether", 20.0, 20.0);
+        store.updateDroneData(second, owner, 6, 70, 6, "minecraft:the_nether", 16.0, 20.0);
+        store.removeDroneData(first);
+        store.updateDroneData(third, otherOwner, 1, 2, 3, "minecraft:overworld", 4.0, 20.0);
+
+        assertNull(store.getDroneData(first));
+        assertEquals(70.0, store.getDroneData(second).y);
+        assertEquals(otherOwner, store.getDroneData(third).ownerUUID);
+        assertEquals(2, store.getTrackedDrones().size());
+
+        assertEquals(List.of(third), store.getDronesInDimension("minecraft:overworld"));
+        assertEquals(List.of(second), store.getDronesInDimension("minecraft:the_nether"));
+        assertTrue(store.getDronesInDimension("minecraft:the_end").isEmpty());
+        assertEquals(16.0, store.getAverageHealth(owner));
+        assertEquals(0.0, store.getAverageHealth(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testMappedStoreGrowsInPlace() throws IOException {
+        DroneTelemetryStore store = DroneTelemetryStore.mapped(dataDir.resolve("telemetry.bin"));
+        UUID owner = UUID.randomUUID();
+        UUID[] drones = new UUID[200];
+        for (int i = 0; i < drones.length; i++) {
+            drones[i] = UUID.randomUUID();
+            store.updateDroneData(drones[i], owner, i, 64, -i, "minecraft:overworld", 20.0, 40.0);
+        }
+        store.updateDroneData(drones[5], owner, 1.5, 70, 2.5, "minecraft:the_end", 10.0, 40.0);
+        store.removeDroneData(drones[7]);
+
+        assertEquals(199, store.getTrackedDrones().size());
+        assertEquals(150.0, store.getDroneData(drones[150]).x);
+        assertEquals(List.of(drones[5]), store.getDronesInDimension("minecraft:the_end"));
+
+        DroneTelemetryStore loaded = DroneTelemetryStore.createFromNbt(store.writeNbt(new NbtCompound()));
+        assertEquals(70.0, loaded.getDroneData(drones[5]).y);
+        assertNull(loaded.getDroneData(drones[7]));
+        store.close();
+    }
+
+    @Test
+    public void testSpatialQueriesMatchAScan() {
+        DroneTelemetryStore store = new DroneTelemetryStore();
+        Random random = new Random(42);
+        UUID owner = UUID.randomUUID();
+        UUID otherOwner = UUID.randomUUID();
+        List<UUID> drones = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            UUID drone = UUID.randomUUID();
+            drones.add(drone);
+            String dimension = i % 10 == 0 ? "minecraft:the_nether" : "minecraft:overworld";
+            store.updateDroneData(drone, i % 3 == 0 ? otherOwner : owner, random.nextGaussian() * 400,
+                    64 + random.nextInt(64), random.nextGaussian() * 400, dimension, 20.0, 40.0);
+        }
+        // Moves and removals must keep the grid in step with the columns
+        for (int i = 0; i < 200; i++) {
+            store.updateDroneData(drones.get(i), owner, random.nextGaussian() * 400, 70,
+                    random.nextGaussian() * 400, "minecraft:overworld", 20.0, 40.0);
+            store.removeDroneData(drones.get(1000 + i));
+        }
+        Map<UUID, DroneTelemetryStore.DroneData> all = store.getAllDroneData();
+
+        for (int q = 0; q < 20; q++) {
+            double x = random.nextGaussian() * 300;
+            double z = random.nextGaussian() * 300;
+            double radius = 10 + random.nextInt(300);
+
+            List<UUID> expected = new ArrayList<>();
+            for (DroneTelemetryStore.DroneData data : all.values()) {
+                if (data.dimensionKey.equals("minecraft:overworld") && data.ownerUUID.equals(owner)
+                        && distanceSq(data, x, 96, z) <= radius * radius) {
+                    expected.add(data.droneUUID);
+                }
+            }
+            assertEquals(new HashSet<>(expected),
+                    new HashSet<>(store.getDronesInRadius("minecraft:overworld", x, 96, z, radius, owner)));
+
+            expected.sort(Comparator.comparingDouble(drone -> distanceSq(all.get(drone), x, 96, z)));
+            List<UUID> nearest = store.getNearestDrones("minecraft:overworld", x, 96, z, 5, radius, owner);
+            assertEquals(expected.subList(0, Math.min(5, expected.size())), nearest);
+
+            long inBox = all.values().stream().filter(data -> data.dimensionKey.equals("minecraft:the_nether")
+                    && Math.abs(data.x - x) <= radius && Math.abs(data.z - z) <= radius && data.y <= 100).count();
+            assertEquals(inBox, store.getDronesInBox("minecraft:the_nether", x - radius, 0, z - radius,
+                    x + radius, 100, z + radius, null).size());
+        }
+        assertTrue(store.getNearestDrones("minecraft:the_end", 0, 0, 0, 5, 1000, null).isEmpty());
+    }
+
+    @Test
+    public void testChunkIndexFollowsSmallMoves() {
+        DroneTelemetryStore store = new DroneTelemetryStore();
+        UUID drone = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+        store.updateDroneData(drone, owner, 15.8, 64, -0.2, "minecraft:overworld", 20.0, 40.0);
+        assertEquals(List.of(drone), store.getDronesInChunk("minecraft:overworld", 0, -1));
+
+        // Below the move threshold, but across a chunk border
+        assertTrue(store.updateDroneDataIfChanged(drone, owner, 16.1, 64, -0.2, "minecraft:overworld",
+                20.0, 40.0, 1.0, 1.0));
+        assertTrue(store.getDronesInChunk("minecraft:overworld", 0, -1).isEmpty());
+        assertEquals(List.of(drone), store.getDronesInChunk("minecraft:overworld", 1, -1));
+        assertFalse(store.updateDroneDataIfChanged(drone, owner, 16.5, 64, -0.5, "minecraft:overworld",
+                20.0, 40.0, 1.0, 1.0));
+
+        // The index is rebuilt from the persisted positions
+        DroneTelemetryStore loaded = DroneTelemetryStore.createFromNbt(store.writeNbt(new NbtCompound()));
+        assertEquals(List.of(drone), loaded.getDronesInChunk("minecraft:overworld", 1, -1));
+        assertTrue(loaded.getDronesInChunk("minecraft:the_nether", 1, -1).isEmpty());
+    }
+
+    private static double distanceSq(DroneTelemetryStore.DroneData data, double x, double y, double z) {
+        double dx = data.x - x;
+        double dy = data.y - y;
+        double dz = data.z - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
 }
@@ -0,0 +1,159 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DroneRegionScannerTest {
+
+    @TempDir
+    Path worldDir;
+
+    private static NbtCompound entity(String id, UUID uuid) {
+        NbtCompound entity = new NbtCompound();
+        entity.putString("id", id);
+        entity.putUuid("UUID", uuid);
+        entity.putFloat("Health", 20f);
+        return entity;
+    }
+
+    private static NbtCompound chunk(NbtCompound... entities) {
+        NbtList list = new NbtList();
+        for (NbtCompound entity : entities) {
+            list.add(entity);
+        }
+        NbtCompound chunk = new NbtCompound();
+        chunk.putInt("DataVersion", 3465);
+        chunk.putIntArray("Position", new int[]{0, 0});
+        chunk.put("Entities", list);
+        return chunk;
+    }
+
+    private static byte[] encode(NbtCompound chunk, int compression) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = switch (compression) {
+            case 1 -> new GZIPOutputStream(bytes);
+            case 2 -> new DeflaterOutputStream(bytes);
+            default -> bytes;
+        };
+        try (DataOutputStream data = new DataOutputStream(out)) {
+            NbtIo.write(chunk, data);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Region file with the given chunks, each {index, compression, payload}; a null payload
+    // marks a chunk stored in an external .mcc file
+    private static void writeRegion(Path file, Object[]... chunks) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8192);
+        ByteArrayOutputStream sectors = new ByteArrayOutputStream();
+        int sector = 2;
+        for (Object[] chunk : chunks) {
+            int index = (int) chunk[0];
+            int compression = (int) chunk[1];
+            byte[] payload = chunk[2] != null ? (byte[]) chunk[2] : new byte[0];
+            ByteBuffer entry = ByteBuffer.allocate((payload.length + 5 + 4095) / 4096 * 4096);
+            entry.putInt(payload.length + 1);
+            entry.put((byte) compression);
+            entry.put(payload);
+            header.putInt(index * 4, sector << 8 | entry.capacity() / 4096);
+            sector += entry.capacity() / 4096;
+            sectors.write(entry.array());
+        }
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(header.array());
+            out.write(sectors.toByteArray());
+        }
+    }
+
+    @Test
+    public void testFindsSavedDronesAndPassengers() throws Exception {
+        UUID drone = UUID.randomUUID();
+        UUID rider = UUID.randomUUID();
+        UUID external = UUID.randomUUID();
+        UUID otherWorld = UUID.randomUUID();
+
+        NbtCompound horse = entity("minecraft:horse", UUID.randomUUID());
+        NbtList passengers = new NbtList();
+        passengers.add(entity(DroneRegionScanner.DRONE_ENTITY_ID, rider));
+        horse.put("Passengers", passengers);
+
+        Path entities = worldDir.resolve("entities");
+        writeRegion(entities.resolve("r.-1.2.mca"),
+                new Object[]{0, 2, encode(chunk(entity(DroneRegionScanner.DRONE_ENTITY_ID, drone),
+                        entity("minecraft:zombie", UUID.randomUUID())), 2)},
+                new Object[]{1, 3, encode(chunk(horse), 3)},
+                // Chunk (-32 + 5, 64 + 1) moved out of the region
+                new Object[]{37, 0x80 | 1, null});
+        Files.write(entities.resolve("c.-27.65.mcc"),
+                encode(chunk(entity(DroneRegionScanner.DRONE_ENTITY_ID, external)), 1));
+        // Other files in the folder are ignored
+        Files.write(entities.resolve("r.0.0.mca.tmp"), new byte[]{1, 2, 3});
+
+        Path nether = worldDir.resolve("DIM-1").resolve("entities");
+        writeRegion(nether.resolve("r.0.0.mca"),
+                new Object[]{1023, 2, encode(chunk(entity(DroneRegionScanner.DRONE_ENTITY_ID, otherWorld)), 2)});
+
+        Set<UUID> found = DroneRegionScanner.scanAsync(
+                List.of(entities, nether, worldDir.resolve("DIM1").resolve("entities")),
+                DroneRegionScanner.DRONE_ENTITY_ID).get();
+        assertEquals(Set.of(drone, rider, external, otherWorld), found);
+    }
+
+    @Test
+    public void testUnreadableFileFailsTheScan() throws Exception {
+        Path entities = worldDir.resolve("entities");
+        writeRegion(entities.resolve("r.0.0.mca"), new Object[]{0, 0x80 | 2, null});
+
+        // The external chunk file is missing, so the drones in that chunk are unknown
+        assertScanFails(entities);
+    }
+
+    @Test
+    public void testBrokenChunkEntryFailsTheScan() throws Exception {
+        Path entities = worldDir.resolve("entities");
+        Path region = entities.resolve("r.0.0.mca");
+        byte[] drone = encode(chunk(entity(DroneRegionScanner.DRONE_ENTITY_ID, UUID.randomUUID())), 2);
+
+        // A readable drone next to a chunk whose location points past the end of the file
+        writeRegion(region, new Object[]{0, 2, drone});
+        try (FileChannel channel = FileChannel.open(region, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 500 << 8 | 1), 4);
+        }
+        assertScanFails(entities);
+
+        // A torn chunk whose length runs past its sectors
+        writeRegion(region, new Object[]{0, 2, drone});
+        try (FileChannel channel = FileChannel.open(region, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1 << 20), 2 * 4096);
+        }
+        assertScanFails(entities);
+    }
+
+    private static void assertScanFails(Path entities) {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> DroneRegionScanner.scanAsync(List.of(entities), DroneRegionScanner.DRONE_ENTITY_ID).get());
+        assertTrue(e.getCause() instanceof DroneRegionScanner.RegionScanException);
+    }
+}
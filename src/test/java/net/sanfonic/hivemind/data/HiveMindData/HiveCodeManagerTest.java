@@ -0,0 +1,104 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HiveCodeManagerTest {
+
+    @Test
+    public void testSameCodeForDifferentOwners() {
+        HiveCodeManager mgr = new HiveCodeManager();
+        UUID owner = UUID.randomUUID();
+        UUID otherOwner = UUID.randomUUID();
+        UUID drone = UUID.randomUUID();
+        UUID otherDrone = UUID.randomUUID();
+
+        assertEquals("D-001", mgr.generateHiveCode(drone, owner));
+        assertEquals("D-001", mgr.generateHiveCode(otherDrone, otherOwner));
+
+        assertEquals(drone, mgr.getDroneFromCode("D-001", owner));
+        assertEquals(otherDrone, mgr.getDroneFromCode("D-001", otherOwner));
+        assertTrue(mgr.isCodeInUseByPlayer("D-001", owner));
+        assertFalse(mgr.isCodeInUseByPlayer("D-002", owner));
+        assertEquals(otherOwner, mgr.getCodeOwner(otherDrone));
+
+        mgr.removeHiveCode(drone);
+        assertNull(mgr.getDroneFromCode("D-001", owner));
+        assertEquals(otherDrone, mgr.getDroneFromCode("D-001", otherOwner));
+    }
+
+    @Test
+    public void testPersistence() {
+        HiveCodeManager mgr = new HiveCodeManager();
+        UUID owner = UUID.randomUUID();
+        UUID drone = UUID.randomUUID();
+        for (int i = 0; i < 11; i++) {
+            mgr.generateHiveCode(UUID.randomUUID(), owner);
+        }
+        assertEquals("D-012", mgr.generateHiveCode(drone, owner));
+
+        HiveCodeManager loaded = HiveCodeManager.createFromNbt(mgr.writeNbt(new NbtCompound()));
+        assertEquals("D-012", loaded.getHiveCode(drone));
+        assertEquals(owner, loaded.getCodeOwner(drone));
+        assertEquals(12, loaded.getOwnerDroneCodes(owner).size());
+        assertEquals(13, loaded.getPlayerNextDroneNumber(owner));
+        assertEquals("D-1000", HiveCodeManager.formatHiveCode(1000));
+    }
+
+    @Test
+    public void testOwnerIndexPages() {
+        HiveCodeManager mgr = new HiveCodeManager();
+        UUID owner = UUID.randomUUID();
+        UUID otherOwner = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        mgr.generateHiveCode(UUID.randomUUID(), otherOwner);
+        for (int i = 0; i < 4; i++) {
+            mgr.generateHiveCode(UUID.randomUUID(), owner);
+        }
+        mgr.generateHiveCode(removed, owner);
+        mgr.removeHiveCode(removed);
+        assertEquals(4, mgr.getOwnerCodeCount(owner));
+
+        Map<String, UUID> first = mgr.getOwnerDroneCodesFrom(owner, 1, 3);
+        assertEquals(List.of("D-001", "D-002", "D-003"), List.copyOf(first.keySet()));
+        assertEquals(List.of("D-004"), List.copyOf(mgr.getOwnerDroneCodesFrom(owner, 4, 3).keySet()));
+        assertEquals(List.of("D-003", "D-004"), List.copyOf(mgr.getOwnerDroneCodesFrom(owner, 3, 3).keySet()));
+        assertTrue(mgr.getOwnerDroneCodesFrom(owner, 5, 3).isEmpty());
+
+        assertThrows(UnsupportedOperationException.class, () -> mgr.getOwnerDroneNumbers(owner).clear());
+        assertEquals(1, mgr.getOwnerDroneNumbers(otherOwner).size());
+        assertTrue(mgr.getOwnerDroneNumbers(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    public void testForgottenOwnerSlotIsReused() {
+        HiveCodeManager mgr = new HiveCodeManager();
+        UUID owner = UUID.randomUUID();
+        UUID otherOwner = UUID.randomUUID();
+        UUID drone = UUID.randomUUID();
+        UUID otherDrone = UUID.randomUUID();
+        mgr.generateHiveCode(drone, owner);
+
+        // Still holding a code: the slot stays
+        mgr.forgetOwner(owner);
+        assertEquals(1, mgr.getOwnerSlotCount());
+        assertEquals(owner, mgr.getCodeOwner(drone));
+
+        mgr.removeHiveCode(drone);
+        mgr.forgetOwner(owner);
+        assertEquals(0, mgr.getOwnerSlotCount());
+        assertTrue(mgr.getKnownOwners().isEmpty());
+
+        mgr.generateHiveCode(otherDrone, otherOwner);
+        assertEquals(1, mgr.getOwnerSlotCount());
+        assertEquals(otherOwner, mgr.getCodeOwner(otherDrone));
+        assertEquals(otherDrone, mgr.getDroneFromCode("D-001", otherOwner));
+        assertNull(mgr.getDroneFromCode("D-001", owner));
+    }
+}
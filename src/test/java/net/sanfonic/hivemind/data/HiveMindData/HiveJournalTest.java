@@ -0,0 +1,117 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HiveJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testReplaySkipsSnapshottedEntries() throws IOException {
+        UUID drone = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        try (HiveJournal journal = HiveJournal.open(dir, 0, new RecordingVisitor())) {
+            journal.appendCounter(owner, 2);
+            journal.appendPut(new HiveRecord(drone, owner, true, "D-001", true, 1, 2, 3, "overworld", 10, 20));
+            journal.appendRemove(drone);
+            journal.flush();
+            assertEquals(3, journal.getLastSeq());
+        }
+
+        RecordingVisitor all = new RecordingVisitor();
+        HiveJournal.open(dir, 0, all).close();
+        assertEquals(List.of("counter " + owner + " 2", "put " + drone + " D-001", "remove " + drone), all.entries);
+
+        RecordingVisitor tail = new RecordingVisitor();
+        try (HiveJournal journal = HiveJournal.open(dir, 2, tail)) {
+            assertEquals(List.of("remove " + drone), tail.entries);
+            assertEquals(3, journal.getLastSeq());
+        }
+    }
+
+    @Test
+    public void testTornTailIsDropped() throws IOException {
+        UUID drone = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        try (HiveJournal journal = HiveJournal.open(dir, 0, new RecordingVisitor())) {
+            journal.appendPut(new HiveRecord(drone, owner, true, null, false, 0, 0, 0, "", 0, 0));
+            journal.flush();
+        }
+
+        // Simulate a crash in the middle of the next entry
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(path -> {
+                try {
+                    return Files.size(path) > 0;
+                } catch (IOException e) {
+                    return false;
+                }
+            }).findFirst().orElseThrow();
+        }
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        RecordingVisitor visitor = new RecordingVisitor();
+        try (HiveJournal journal = HiveJournal.open(dir, 0, visitor)) {
+            assertEquals(List.of("put " + drone + " null"), visitor.entries);
+            journal.appendRemove(drone);
+            journal.flush();
+        }
+
+        RecordingVisitor reopened = new RecordingVisitor();
+        HiveJournal.open(dir, 0, reopened).close();
+        assertEquals(List.of("put " + drone + " null", "remove " + drone), reopened.entries);
+    }
+
+    @Test
+    public void testDiscardAfterRotate() throws IOException {
+        UUID owner = UUID.randomUUID();
+
+        try (HiveJournal journal = HiveJournal.open(dir, 0, new RecordingVisitor())) {
+            journal.appendCounter(owner, 5);
+            long firstKept = journal.rotate();
+            assertEquals(0, journal.getEntriesSinceSnapshot());
+            journal.appendCounter(owner, 6);
+            journal.flush();
+            journal.discardBefore(firstKept);
+        }
+
+        RecordingVisitor visitor = new RecordingVisitor();
+        HiveJournal.open(dir, 0, visitor).close();
+        assertEquals(List.of("counter " + owner + " 6"), visitor.entries);
+    }
+
+    private static class RecordingVisitor implements HiveJournal.Visitor {
+        final List<String> entries = new ArrayList<>();
+
+        @Override
+        public void put(HiveRecord record) {
+            entries.add("put " + record.droneUUID + " " + record.hiveCode);
+        }
+
+        @Override
+        public void remove(UUID droneUUID) {
+            entries.add("remove " + droneUUID);
+        }
+
+        @Override
+        public void counter(UUID ownerUUID, int nextNumber) {
+            entries.add("counter " + ownerUUID + " " + nextNumber);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Reports time, peak heap and retained heap of each load. Run with a small young generation
+// (e.g. -Xmn16m) so collections happen during a load and the peak follows live data, not eden size.
+@Disabled("Benchmark - run manually to compare tree and streaming ledger loads.")
+public class HiveLedgerLoadBenchmark {
+    private static final int DRONES = 100_000;
+    private static final int OWNERS = 500;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    public void compareTreeAndStreamingLoad() throws IOException {
+        HiveLedger source = new HiveLedger();
+        UUID[] owners = new UUID[OWNERS];
+        for (int i = 0; i < OWNERS; i++) {
+            owners[i] = UUID.randomUUID();
+        }
+        source.batch(() -> {
+            for (int i = 0; i < DRONES; i++) {
+                UUID drone = UUID.randomUUID();
+                UUID owner = owners[i % OWNERS];
+                source.getLinkManager().linkDroneToOwner(drone, owner);
+                source.getCodeManager().generateHiveCode(drone, owner);
+                source.getTelemetryStore().updateDroneData(drone, owner, i, 64, -i, "minecraft:overworld", 20, 40);
+            }
+        });
+
+        NbtCompound root = new NbtCompound();
+        root.put("data", source.writeNbt(new NbtCompound()));
+        NbtIo.writeCompressed(root, dataDir.resolve("hivemind_ledger.dat").toFile());
+
+        for (int round = 0; round < ROUNDS; round++) {
+            HeapUse tree = measure(() -> HiveLedger.createFromNbt(
+                    NbtIo.readCompressed(dataDir.resolve("hivemind_ledger.dat").toFile()).getCompound("data")));
+            HeapUse streaming = measure(() -> HiveLedger.readUnsharded(dataDir));
+
+            System.out.printf("round %d: tree %d ms / %d MB peak / %d MB retained, "
+                            + "streaming %d ms / %d MB peak / %d MB retained%n",
+                    round, tree.nanos() / 1_000_000, tree.peakBytes() >> 20, tree.retainedBytes() >> 20,
+                    streaming.nanos() / 1_000_000, streaming.peakBytes() >> 20, streaming.retainedBytes() >> 20);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Load {
+        HiveLedger run() throws IOException;
+    }
+
+    // Heap above the pre-load baseline: the highest point during the load, and what the loaded
+    // ledger keeps once the garbage is collected
+    private record HeapUse(long nanos, long peakBytes, long retainedBytes) {
+    }
+
+    private static HeapUse measure(Load load) throws IOException {
+        List<MemoryPoolMXBean> pools = heapPools();
+        collectGarbage();
+        // Eden is empty after a full collection, so the baseline is the surviving heap
+        long baseline = usedHeap(pools);
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        HiveLedger ledger = load.run();
+        long nanos = System.nanoTime() - start;
+
+        // Per-pool peaks can come from different moments, so their sum is an upper bound
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        collectGarbage();
+        long retained = usedHeap(pools);
+        assertEquals(DRONES, ledger.getLinkManager().getLinkedDrones().size());
+        return new HeapUse(nanos, peak - baseline, retained - baseline);
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static long usedHeap(List<MemoryPoolMXBean> pools) {
+        long used = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private static void collectGarbage() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+}
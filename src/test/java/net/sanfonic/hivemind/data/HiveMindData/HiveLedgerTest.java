@@ -0,0 +1,352 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.sanfonic.hivemind.data.DroneData.DroneTelemetryStore;
+import net.sanfonic.hivemind.data.HiveIoExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HiveLedgerTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    public void testSingleRecordPersistence() {
+        HiveLedger ledger = new HiveLedger();
+        UUID drone = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+        String code = ledger.getCodeManager().generateHiveCode(drone, owner);
+        ledger.getTelemetryStore().updateDroneData(drone, owner, 1.0, 2.0, 3.0, "overworld", 10.0, 20.0);
+
+        NbtCompound nbt = new NbtCompound();
+        ledger.writeNbt(nbt);
+        assertEquals(1, nbt.getList("Drones", NbtElement.COMPOUND_TYPE).size());
+
+        HiveLedger loaded = HiveLedger.createFromNbt(nbt);
+        assertFalse(loaded.isDirty());
+        assertEquals(owner, loaded.getLinkManager().getDroneOwner(drone));
+        assertEquals(code, loaded.getCodeManager().getHiveCode(drone));
+        assertEquals(2, loaded.getCodeManager().getPlayerNextDroneNumber(owner));
+
+        DroneTelemetryStore.DroneData data = loaded.getTelemetryStore().getDroneData(drone);
+        assertNotNull(data);
+        assertEquals(3.0, data.z);
+    }
+
+    @Test
+    public void testBatchMarksDirtyOnce() {
+        HiveLedger ledger = new HiveLedger();
+        UUID owner = UUID.randomUUID();
+
+        ledger.batch(() -> {
+            for (int i = 0; i < 10; i++) {
+                UUID drone = UUID.randomUUID();
+                ledger.getLinkManager().linkDroneToOwner(drone, owner);
+                ledger.getCodeManager().generateHiveCode(drone, owner);
+                assertFalse(ledger.isDirty());
+            }
+        });
+
+        assertTrue(ledger.isDirty());
+        assertEquals(10, ledger.getLinkManager().getOwnerDrones(owner).size());
+    }
+
+    @Test
+    public void testSweepDropsUnmarkedDrones() {
+        HiveLedger ledger = new HiveLedger();
+        UUID owner = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        for (UUID drone : List.of(kept, deleted)) {
+            ledger.getLinkManager().linkDroneToOwner(drone, owner);
+            ledger.getCodeManager().generateHiveCode(drone, owner);
+            ledger.getTelemetryStore().updateDroneData(drone, owner, 1.0, 2.0, 3.0, "overworld", 10.0, 20.0);
+        }
+
+        ledger.batch(() -> {
+            ledger.getLinkManager().cleanupNonExistentDrones(kept::equals);
+            ledger.getTelemetryStore().cleanupNonExistentDrones(kept::equals);
+            ledger.getCodeManager().cleanupInvalidCodes(kept::equals);
+        });
+
+        NbtCompound nbt = new NbtCompound();
+        ledger.writeNbt(nbt);
+        assertEquals(1, nbt.getList("Drones", NbtElement.COMPOUND_TYPE).size());
+        HiveLedger loaded = HiveLedger.createFromNbt(nbt);
+        assertNull(loaded.getCodeManager().getHiveCode(deleted));
+        assertNull(loaded.getTelemetryStore().getDroneData(deleted));
+        assertEquals("D-001", loaded.getCodeManager().getHiveCode(kept));
+        // Numbers of deleted drones aren't handed out again
+        assertEquals(3, loaded.getCodeManager().getPlayerNextDroneNumber(owner));
+    }
+
+    @Test
+    public void testJournalReplaysWithoutSnapshot() {
+        HiveLedger ledger = HiveLedger.open(journalDir, 1000);
+        UUID drone = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        ledger.batch(() -> {
+            ledger.getLinkManager().linkDroneToOwner(drone, owner);
+            ledger.getCodeManager().generateHiveCode(drone, owner);
+        });
+        // Changes went to the shard journal, no snapshot needs rewriting
+        assertFalse(ledger.isDirty());
+        HiveLedger.closeOpenJournals();
+
+        HiveLedger restored = HiveLedger.open(journalDir, 1000);
+        restored.ensureOwnerLoaded(owner);
+        assertEquals(owner, restored.getLinkManager().getDroneOwner(drone));
+        assertEquals("D-001", restored.getCodeManager().getHiveCode(drone));
+        assertEquals(2, restored.getCodeManager().getPlayerNextDroneNumber(owner));
+        assertFalse(restored.isDirty());
+
+        restored.getLinkManager().unlinkDrone(drone);
+        HiveLedger.closeOpenJournals();
+
+        HiveLedger unlinked = HiveLedger.open(journalDir, 1000);
+        unlinked.ensureOwnerLoaded(owner);
+        assertFalse(unlinked.getLinkManager().isDroneLinked(drone));
+        assertEquals("D-001", unlinked.getCodeManager().getHiveCode(drone));
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testJournalThresholdSchedulesCompaction() {
+        HiveLedger ledger = HiveLedger.open(journalDir, 3);
+        UUID owner = UUID.randomUUID();
+
+        ledger.getLinkManager().linkDroneToOwner(UUID.randomUUID(), owner);
+        ledger.getLinkManager().linkDroneToOwner(UUID.randomUUID(), owner);
+        assertFalse(ledger.isDirty());
+
+        ledger.getLinkManager().linkDroneToOwner(UUID.randomUUID(), owner);
+        assertTrue(ledger.isDirty());
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testCompactedShardSurvivesReopen() {
+        HiveLedger ledger = HiveLedger.open(journalDir, 2);
+        UUID owner = UUID.randomUUID();
+        UUID drone = UUID.randomUUID();
+
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+        ledger.getCodeManager().generateHiveCode(drone, owner);
+        assertTrue(ledger.isDirty());
+
+        ledger.save(journalDir.resolve("hivemind_shards.dat").toFile());
+        HiveIoExecutor.flush();
+        assertFalse(ledger.isDirty());
+        HiveLedger.closeOpenJournals();
+
+        HiveLedger reopened = HiveLedger.open(journalDir, 2);
+        assertEquals("D-001", reopened.getCodeManager().getOwnerDroneCodes(owner).keySet().iterator().next());
+        assertEquals(owner, reopened.getLinkManager().getDroneOwner(drone));
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testOnlyRequestedShardIsLoaded() throws IOException {
+        HiveLedger ledger = new HiveLedger();
+        UUID owner = UUID.randomUUID();
+        UUID otherOwner = ownerInOtherShard(owner);
+        UUID drone = UUID.randomUUID();
+        UUID otherDrone = UUID.randomUUID();
+
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+        ledger.getCodeManager().generateHiveCode(drone, owner);
+        ledger.getLinkManager().linkDroneToOwner(otherDrone, otherOwner);
+        writeDataFile("hivemind_ledger", ledger.writeNbt(new NbtCompound()));
+
+        HiveLedger sharded = HiveLedger.open(journalDir, 1000);
+        assertFalse(sharded.isDirty());
+        assertNull(sharded.getLinkManager().getDroneOwner(drone));
+
+        assertEquals(1, sharded.getLinkManager().getOwnerDrones(owner).size());
+        assertEquals("D-001", sharded.getCodeManager().getHiveCode(drone));
+        assertNull(sharded.getLinkManager().getDroneOwner(otherDrone));
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testIdleShardIsEvictedAndReloaded() {
+        HiveLedger ledger = HiveLedger.open(journalDir, 1000);
+        UUID owner = UUID.randomUUID();
+        UUID onlineOwner = ownerInOtherShard(owner);
+        UUID drone = UUID.randomUUID();
+        UUID onlineDrone = UUID.randomUUID();
+
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+        ledger.getCodeManager().generateHiveCode(drone, owner);
+        ledger.getLinkManager().linkDroneToOwner(onlineDrone, onlineOwner);
+        // Shards stay loaded while their journal writes are queued
+        HiveIoExecutor.flush();
+
+        ledger.evictIdleShards(0, List.of(onlineOwner));
+        assertNull(ledger.getLinkManager().getDroneOwner(drone));
+        assertNull(ledger.getCodeManager().getHiveCode(drone));
+        assertEquals(onlineOwner, ledger.getLinkManager().getDroneOwner(onlineDrone));
+
+        // Touching the owner brings the evicted shard back, counter included
+        assertEquals(2, ledger.getCodeManager().getPlayerNextDroneNumber(owner));
+        assertEquals(owner, ledger.getLinkManager().getDroneOwner(drone));
+        assertEquals("D-001", ledger.getCodeManager().getHiveCode(drone));
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testPrefetchedShardIsLoadedInTheBackground() {
+        HiveLedger ledger = HiveLedger.open(journalDir, 1000);
+        UUID owner = UUID.randomUUID();
+        UUID drone = UUID.randomUUID();
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+        HiveIoExecutor.flush();
+        ledger.evictIdleShards(0, List.of());
+        assertNull(ledger.getLinkManager().getDroneOwner(drone));
+
+        boolean[] ran = new boolean[2];
+        ledger.prefetchOwner(owner, () -> ran[0] = true);
+        HiveIoExecutor.flush();
+        assertTrue(ran[0]);
+        assertEquals(owner, ledger.getLinkManager().getDroneOwner(drone));
+
+        // A loaded shard runs the action right away
+        ledger.prefetchOwner(owner, () -> ran[1] = true);
+        assertTrue(ran[1]);
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testShardStaysLoadedWhileSnapshotIsWritten() throws InterruptedException {
+        HiveLedger ledger = HiveLedger.open(journalDir, 1);
+        UUID owner = UUID.randomUUID();
+        UUID drone = UUID.randomUUID();
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+
+        // Hold the I/O thread so the snapshot write stays queued
+        CountDownLatch release = new CountDownLatch(1);
+        HiveIoExecutor.submit("block", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ledger.save(journalDir.resolve("hivemind_shards.dat").toFile());
+        ledger.evictIdleShards(0, List.of());
+        assertEquals(owner, ledger.getLinkManager().getDroneOwner(drone));
+
+        release.countDown();
+        HiveIoExecutor.flush();
+        ledger.evictIdleShards(0, List.of());
+        assertNull(ledger.getLinkManager().getDroneOwner(drone));
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testUnshardedLedgerIsStreamed() throws IOException {
+        HiveLedger ledger = new HiveLedger();
+        UUID drone = UUID.randomUUID();
+        UUID codedOnly = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+        ledger.getCodeManager().generateHiveCode(drone, owner);
+        ledger.getCodeManager().generateHiveCode(codedOnly, owner);
+        ledger.getTelemetryStore().updateDroneData(drone, owner, 1.5, 64.0, -3.0, "minecraft:the_nether", 12.0, 40.0);
+        writeDataFile("hivemind_ledger", ledger.writeNbt(new NbtCompound()));
+
+        HiveLedger loaded = HiveLedger.readUnsharded(journalDir);
+        assertNotNull(loaded);
+        assertFalse(loaded.isDirty());
+        assertEquals(owner, loaded.getLinkManager().getDroneOwner(drone));
+        assertFalse(loaded.getLinkManager().isDroneLinked(codedOnly));
+        assertEquals("D-002", loaded.getCodeManager().getHiveCode(codedOnly));
+        assertEquals(3, loaded.getCodeManager().getPlayerNextDroneNumber(owner));
+
+        DroneTelemetryStore.DroneData data = loaded.getTelemetryStore().getDroneData(drone);
+        assertNotNull(data);
+        assertEquals("minecraft:the_nether", data.dimensionKey);
+        assertEquals(-3.0, data.z);
+        assertNull(loaded.getTelemetryStore().getDroneData(codedOnly));
+    }
+
+    @Test
+    public void testLegacyFilesAreMigrated() throws IOException {
+        UUID drone = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        HiveMindLinkManager links = new HiveMindLinkManager();
+        links.linkDroneToOwner(drone, owner);
+        HiveCodeManager codes = new HiveCodeManager();
+        String code = codes.generateHiveCode(drone, owner);
+        DroneTelemetryStore telemetry = new DroneTelemetryStore();
+        telemetry.updateDroneData(drone, owner, 4.0, 5.0, 6.0, "overworld", 1.0, 2.0);
+
+        writeDataFile("hivemind_links", links.writeNbt(new NbtCompound()));
+        writeDataFile("hivemind_hivecodes", codes.writeNbt(new NbtCompound()));
+        writeDataFile("hivemind_telemetry", telemetry.writeNbt(new NbtCompound()));
+
+        HiveLedger.open(journalDir, 1000);
+        HiveLedger.closeOpenJournals();
+
+        // The shards were written during migration, so a second open finds the data there
+        HiveLedger migrated = HiveLedger.open(journalDir, 1000);
+        migrated.ensureOwnerLoaded(owner);
+        assertEquals(owner, migrated.getLinkManager().getDroneOwner(drone));
+        assertEquals(code, migrated.getCodeManager().getHiveCode(drone));
+        assertEquals(2, migrated.getCodeManager().getPlayerNextDroneNumber(owner));
+        assertEquals(5.0, migrated.getTelemetryStore().getDroneData(drone).y);
+        HiveLedger.closeOpenJournals();
+    }
+
+    @Test
+    public void testMappedTelemetryIsReloadedFromShards() {
+        HiveLedger ledger = HiveLedger.open(journalDir, 1000, true);
+        UUID drone = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        ledger.getLinkManager().linkDroneToOwner(drone, owner);
+        ledger.getTelemetryStore().updateDroneData(drone, owner, 7.0, 8.0, 9.0, "minecraft:overworld", 5.0, 40.0);
+        assertEquals(8.0, ledger.getTelemetryStore().getDroneData(drone).y);
+        assertTrue(journalDir.resolve("hivemind_shards").resolve("telemetry.bin").toFile().length() > 0);
+        HiveLedger.closeOpenJournals();
+
+        HiveLedger reopened = HiveLedger.open(journalDir, 1000, true);
+        assertNull(reopened.getTelemetryStore().getDroneData(drone));
+        reopened.ensureOwnerLoaded(owner);
+        assertEquals(9.0, reopened.getTelemetryStore().getDroneData(drone).z);
+        HiveLedger.closeOpenJournals();
+    }
+
+    // Some owner whose drones live in a different shard than the given one
+    private static UUID ownerInOtherShard(UUID owner) {
+        int shard = Math.floorMod(owner.hashCode(), HiveLedger.DEFAULT_SHARD_COUNT);
+        UUID other;
+        do {
+            other = UUID.randomUUID();
+        } while (Math.floorMod(other.hashCode(), HiveLedger.DEFAULT_SHARD_COUNT) == shard);
+        return other;
+    }
+
+    // Write a file the way PersistentState.save does
+    private void writeDataFile(String name, NbtCompound data) throws IOException {
+        NbtCompound root = new NbtCompound();
+        root.put("data", data);
+        NbtIo.writeCompressed(root, journalDir.resolve(name + ".dat").toFile());
+    }
+}
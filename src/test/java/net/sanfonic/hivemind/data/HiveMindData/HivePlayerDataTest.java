@@ -0,0 +1,46 @@
+package net.sanfonic.hivemind.data.HiveMindData;
+
+import net.minecraft.nbt.NbtCompound;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HivePlayerDataTest {
+
+    @Test
+    public void testNbtRoundTrip() {
+        HivePlayerData data = new HivePlayerData();
+        data.hasAccess = true;
+        data.hiveId = UUID.randomUUID();
+        data.joinTime = 1234L;
+
+        NbtCompound nbt = new NbtCompound();
+        data.writeNbt(nbt);
+        HivePlayerData loaded = new HivePlayerData();
+        loaded.readNbt(nbt);
+
+        assertTrue(loaded.hasAccess);
+        assertEquals(data.hiveId, loaded.hiveId);
+        assertEquals(1234L, loaded.joinTime);
+    }
+
+    @Test
+    public void testClearedDataHasNoHive() {
+        HivePlayerData data = new HivePlayerData();
+        data.hasAccess = true;
+        data.hiveId = UUID.randomUUID();
+        data.clear();
+
+        NbtCompound nbt = new NbtCompound();
+        data.writeNbt(nbt);
+        HivePlayerData loaded = new HivePlayerData();
+        loaded.copyFrom(data);
+        loaded.readNbt(nbt);
+
+        assertFalse(loaded.hasAccess);
+        assertNull(loaded.hiveId);
+        assertEquals(0L, loaded.joinTime);
+    }
+}
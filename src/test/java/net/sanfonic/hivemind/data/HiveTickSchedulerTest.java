@@ -0,0 +1,98 @@
+package net.sanfonic.hivemind.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HiveTickSchedulerTest {
+
+    @BeforeEach
+    void setUp() {
+        HiveTickScheduler.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        HiveTickScheduler.clear();
+    }
+
+    @Test
+    void testRunsHighestPriorityFirst() {
+        List<String> order = new ArrayList<>();
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.LOW, "low", () -> order.add("low"));
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.NORMAL, "normal 1", () -> order.add("normal 1"));
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.HIGH, "high", () -> order.add("high"));
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.NORMAL, "normal 2", () -> order.add("normal 2"));
+
+        assertEquals(4, HiveTickScheduler.tick(Long.MAX_VALUE));
+        assertEquals(List.of("high", "normal 1", "normal 2", "low"), order);
+        assertEquals(0, HiveTickScheduler.getQueueDepth());
+    }
+
+    @Test
+    void testSpentBudgetCarriesWorkOver() {
+        int[] run = new int[1];
+        for (int i = 0; i < 3; i++) {
+            HiveTickScheduler.submit(HiveTickScheduler.Priority.NORMAL, "task", () -> run[0]++);
+        }
+
+        // Even without budget, every tick makes progress
+        assertEquals(1, HiveTickScheduler.tick(0));
+        assertEquals(2, HiveTickScheduler.getQueueDepth());
+        assertEquals(1, HiveTickScheduler.tick(0));
+        assertEquals(1, HiveTickScheduler.tick(0));
+        assertEquals(0, HiveTickScheduler.tick(0));
+        assertEquals(3, run[0]);
+    }
+
+    @Test
+    void testHighPriorityWorkOvertakesCarriedOverWork() {
+        List<String> order = new ArrayList<>();
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.LOW, "low 1", () -> order.add("low 1"));
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.LOW, "low 2", () -> order.add("low 2"));
+        HiveTickScheduler.tick(0);
+
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.HIGH, "high", () -> order.add("high"));
+        HiveTickScheduler.tick(0);
+        HiveTickScheduler.tick(0);
+
+        assertEquals(List.of("low 1", "high", "low 2"), order);
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopTheQueue() {
+        int[] run = new int[1];
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.HIGH, "broken", () -> {
+            throw new IllegalStateException("broken");
+        });
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.HIGH, "working", () -> run[0]++);
+
+        assertEquals(2, HiveTickScheduler.tick(Long.MAX_VALUE));
+        assertEquals(1, run[0]);
+    }
+
+    @Test
+    void testTracksQueueDepthPerPriority() {
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.HIGH, "a", () -> {
+        });
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.LOW, "b", () -> {
+        });
+        HiveTickScheduler.submit(HiveTickScheduler.Priority.LOW, "c", () -> {
+        });
+
+        assertEquals(3, HiveTickScheduler.getQueueDepth());
+        assertEquals(1, HiveTickScheduler.getQueueDepth(HiveTickScheduler.Priority.HIGH));
+        assertEquals(0, HiveTickScheduler.getQueueDepth(HiveTickScheduler.Priority.NORMAL));
+        assertEquals(2, HiveTickScheduler.getQueueDepth(HiveTickScheduler.Priority.LOW));
+        assertEquals(0, HiveTickScheduler.getMaxLatencyMillis());
+
+        HiveTickScheduler.tick(Long.MAX_VALUE);
+        assertTrue(HiveTickScheduler.getMaxLatencyMillis() >= HiveTickScheduler.getAverageLatencyMillis());
+        assertTrue(HiveTickScheduler.getStats().startsWith("0 queued"));
+    }
+}
@@ -0,0 +1,93 @@
+package net.sanfonic.hivemind.data.collection;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Disabled("Benchmark - run manually to compare the heap footprint of UUID collections.")
+public class UuidMapFootprintBenchmark {
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+
+    // Shared value so only the map structure itself is measured
+    private static final Object VALUE = new Object();
+
+    @Test
+    public void compareFootprints() {
+        for (int size : SIZES) {
+            long[] bits = randomBits(size);
+
+            long hashMap = retainedBytes(() -> {
+                Map<UUID, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(new UUID(bits[i * 2], bits[i * 2 + 1]), VALUE);
+                }
+                return map;
+            });
+            long uuidMap = retainedBytes(() -> {
+                UuidMap<Object> map = new UuidMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(bits[i * 2], bits[i * 2 + 1], VALUE);
+                }
+                return map;
+            });
+            long hashSet = retainedBytes(() -> {
+                Set<UUID> set = new HashSet<>();
+                for (int i = 0; i < size; i++) {
+                    set.add(new UUID(bits[i * 2], bits[i * 2 + 1]));
+                }
+                return set;
+            });
+            long uuidSet = retainedBytes(() -> {
+                UuidSet set = new UuidSet();
+                for (int i = 0; i < size; i++) {
+                    set.add(new UUID(bits[i * 2], bits[i * 2 + 1]));
+                }
+                return set;
+            });
+
+            System.out.printf("%,d entries: HashMap %.1f B/entry, UuidMap %.1f B/entry, HashSet %.1f B/entry, UuidSet %.1f B/entry%n",
+                    size, (double) hashMap / size, (double) uuidMap / size,
+                    (double) hashSet / size, (double) uuidSet / size);
+        }
+    }
+
+    private static long[] randomBits(int size) {
+        Random random = new Random(size);
+        long[] bits = new long[size * 2];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = random.nextLong();
+        }
+        return bits;
+    }
+
+    // Heap still in use after building the structure, averaged over a few rounds
+    private static long retainedBytes(Supplier<Object> build) {
+        final int rounds = 3;
+        long total = 0;
+        List<Object> keep = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            long before = usedHeap();
+            keep.add(build.get());
+            total += usedHeap() - before;
+            keep.clear();
+        }
+        return total / rounds;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,78 @@
+package net.sanfonic.hivemind.data.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidMapTest {
+
+    @Test
+    public void testMatchesHashMapUnderChurn() {
+        UuidMap<Integer> map = new UuidMap<>();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> keys = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            if (keys.isEmpty() || random.nextInt(3) > 0) {
+                UUID key = new UUID(random.nextLong(), random.nextLong());
+                keys.add(key);
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else {
+                UUID key = keys.remove(random.nextInt(keys.size()));
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<UUID, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(expected.keySet(), map.keySet());
+        assertNull(map.get(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testNilUuidIsAKey() {
+        UuidMap<String> map = new UuidMap<>();
+        UUID nil = new UUID(0, 0);
+        assertFalse(map.containsKey(nil));
+
+        map.put(nil, "nil");
+        assertEquals("nil", map.get(nil));
+        assertEquals(1, map.size());
+        assertEquals(List.of(nil), new ArrayList<>(map.keySet()));
+
+        assertEquals("nil", map.remove(nil));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testSetAddRemove() {
+        UuidSet set = new UuidSet();
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            added.add(uuid);
+            assertTrue(set.add(uuid));
+        }
+        assertFalse(set.add(added.get(0)));
+
+        for (int i = 0; i < added.size(); i += 2) {
+            assertTrue(set.remove(added.get(i)));
+        }
+        assertEquals(500, set.size());
+        for (int i = 0; i < added.size(); i++) {
+            assertEquals(i % 2 == 1, set.contains(added.get(i)));
+        }
+        assertEquals(500, new HashSet<>(set.toList()).size());
+    }
+}
@@ -0,0 +1,92 @@
+package net.sanfonic.hivemind.data.player;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlayerDataCacheTest {
+
+    private final List<UUID> written = new ArrayList<>();
+    private final Set<UUID> online = new HashSet<>();
+
+    private PlayerDataCache newCache(int maxSize, long idleMillis) {
+        return new PlayerDataCache(maxSize, idleMillis, online::contains,
+                (uuid, file, data) -> written.add(uuid));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvictedAndWrittenBack() {
+        PlayerDataCache cache = newCache(2, Long.MAX_VALUE);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        cache.put(first, new File("first.dat"), new PlayerHiveComponent.PlayerHiveData());
+        cache.put(second, new File("second.dat"), new PlayerHiveComponent.PlayerHiveData());
+        cache.markDirty(first);
+        cache.markDirty(second);
+        assertNotNull(cache.get(first)); // second is now the least recently used
+
+        cache.put(third, new File("third.dat"), new PlayerHiveComponent.PlayerHiveData());
+        assertEquals(2, cache.size());
+        assertNull(cache.peek(second));
+        assertEquals(List.of(second), written);
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testOnlinePlayersAreNotEvicted() {
+        PlayerDataCache cache = newCache(1, 0);
+        UUID player = UUID.randomUUID();
+        UUID offline = UUID.randomUUID();
+        online.add(player);
+
+        cache.put(player, new File("player.dat"), new PlayerHiveComponent.PlayerHiveData());
+        cache.put(offline, new File("offline.dat"), new PlayerHiveComponent.PlayerHiveData());
+        assertNull(cache.peek(offline));
+
+        cache.evictIdle();
+        assertNotNull(cache.peek(player));
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    public void testIdleEvictionAndCounters() {
+        PlayerDataCache cache = newCache(10, 0);
+        UUID player = UUID.randomUUID();
+
+        assertNull(cache.get(player));
+        cache.put(player, new File("player.dat"), new PlayerHiveComponent.PlayerHiveData());
+        assertNotNull(cache.get(player));
+        cache.markDirty(player);
+
+        cache.evictIdle();
+        assertFalse(cache.contains(player));
+        assertEquals(List.of(player), written);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testWriteBackOnlyWritesDirtyEntries() {
+        PlayerDataCache cache = newCache(10, Long.MAX_VALUE);
+        UUID clean = UUID.randomUUID();
+        UUID dirty = UUID.randomUUID();
+
+        cache.put(clean, new File("clean.dat"), new PlayerHiveComponent.PlayerHiveData());
+        cache.put(dirty, new File("dirty.dat"), new PlayerHiveComponent.PlayerHiveData());
+        cache.markDirty(dirty);
+
+        cache.writeBackAll();
+        cache.writeBackAll();
+        assertEquals(List.of(dirty), written);
+    }
+}